@@ -23,6 +23,12 @@ public final class ManagedKafkaKeys {
          */
         public static final String SECRET_DEPENDENCY_DIGEST = MK_PREFIX + "secret-dependency-digest";
 
+        /**
+         * Digest of the desired state last applied to an operand resource. When the desired state
+         * is unchanged, and the resource still carries the digest, the write is skipped.
+         */
+        public static final String DESIRED_STATE_DIGEST = MK_PREFIX + "desired-state-digest";
+
         /**
          * Annotation containing the timestamp the operator updates the Strimzi Kafka resource
          * with a new version.
@@ -58,11 +64,18 @@ public final class ManagedKafkaKeys {
          */
         public static final String PAUSE_RECONCILIATION = MK_PREFIX + "pause-reconciliation";
 
+        /**
+         * Fingerprint of the control plane desired state (spec, labels, and annotations) last
+         * applied to the ManagedKafka by the sync.
+         */
+        public static final String DESIRED_STATE_FINGERPRINT = MK_PREFIX + "desired-state-fingerprint";
+
         /**
          * Set of annotations managed by the data plane - expand as needed.
          */
         public static final Set<String> DATA_PLANE_ANNOTATIONS = Set.of(
                 MASTER_SECRET_DIGEST,
+                DESIRED_STATE_FINGERPRINT,
                 KAFKA_UPGRADE_START_TIMESTAMP,
                 KAFKA_UPGRADE_END_TIMESTAMP,
                 PAUSE_RECONCILIATION);
@@ -99,4 +99,8 @@ public abstract class AbstractCustomResourceClient<T extends CustomResource<?, ?
         return OperandUtils.createOrUpdate(resourceClient, resource);
     }
 
+    public T createOrUpdate(T resource, ApplyStrategy strategy) {
+        return OperandUtils.createOrUpdate(resourceClient, resource, strategy);
+    }
+
 }
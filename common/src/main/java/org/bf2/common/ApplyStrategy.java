@@ -0,0 +1,29 @@
+package org.bf2.common;
+
+/**
+ * How {@link OperandUtils#createOrUpdate(io.fabric8.kubernetes.client.dsl.MixedOperation, io.fabric8.kubernetes.api.model.HasMetadata, ApplyStrategy)}
+ * writes a resource.  Configured by values such as replace or server-side-apply.
+ */
+public enum ApplyStrategy {
+
+    /**
+     * A replace locked to the resourceVersion, falling back to a createOrReplace
+     */
+    REPLACE,
+
+    /**
+     * A single server side apply patch, with the {@link OperandUtils#FIELD_MANAGER} taking
+     * ownership of all of the fields sent
+     */
+    SERVER_SIDE_APPLY;
+
+    /**
+     * The resource to build the desired state on.  A server side apply sends only the fields the operator
+     * sets, so nothing is carried over from the current resource - the server keeps the fields of other
+     * managers, and removes those the operator no longer sends.
+     */
+    public <T> T desiredBase(T current) {
+        return this == SERVER_SIDE_APPLY ? null : current;
+    }
+
+}
@@ -1,5 +1,7 @@
 package org.bf2.common;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.fabric8.kubernetes.api.model.Affinity;
 import io.fabric8.kubernetes.api.model.AffinityBuilder;
 import io.fabric8.kubernetes.api.model.HasMetadata;
@@ -19,6 +21,9 @@ import io.fabric8.kubernetes.api.model.TolerationBuilder;
 import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.client.dsl.base.PatchContext;
+import io.fabric8.kubernetes.client.dsl.base.PatchType;
+import io.fabric8.kubernetes.client.utils.Serialization;
 import org.bf2.operator.resources.v1alpha1.ManagedKafka;
 import org.bf2.operator.resources.v1alpha1.ManagedKafkaAgent;
 
@@ -28,6 +33,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class OperandUtils {
 
@@ -43,10 +49,28 @@ public class OperandUtils {
 
     public static final String STRIMZI_OPERATOR_NAME = "strimzi-cluster-operator";
     public static final String FLEETSHARD_OPERATOR_NAME = "kas-fleetshard-operator";
+    public static final String FIELD_MANAGER = FLEETSHARD_OPERATOR_NAME;
     public static final String MASTER_SECRET_NAME = "master-secret";
     public static final String INGRESS_TYPE = "ingressType";
     public static final String SHARDED = "sharded";
 
+    /**
+     * The metadata fields set by the server, which are not part of the desired state
+     */
+    public static final List<String> SERVER_METADATA = List.of("resourceVersion", "generation", "managedFields",
+            "uid", "creationTimestamp", "selfLink", "deletionTimestamp", "deletionGracePeriodSeconds");
+
+    /**
+     * The requests made by {@link #createOrUpdate(MixedOperation, HasMetadata, ApplyStrategy)}, as passed
+     * to the listener of {@link #countRequests(Consumer, Runnable)}.  The create-or-replace fallback is
+     * a single fabric8 call that may make more than one request.
+     */
+    public static final String REQUEST_APPLY = "apply";
+    public static final String REQUEST_REPLACE = "replace";
+    public static final String REQUEST_CREATE_OR_REPLACE = "create-or-replace";
+
+    private static final ThreadLocal<Consumer<String>> REQUEST_LISTENER = new ThreadLocal<>();
+
     /**
      * Set the provided resource as owner of the resource
      *
@@ -93,6 +117,7 @@ public class OperandUtils {
         try {
             // this could be a patch(item) or replace(item) - they do similar things
             // do the replace first that's 1 call when locked
+            requested(REQUEST_REPLACE);
             result = withName.lockResourceVersion(resource.getMetadata().getResourceVersion()).replace(resource);
         } catch (NullPointerException | KubernetesClientException e) {
             // see https://github.com/fabric8io/kubernetes-client/issues/3121
@@ -101,9 +126,85 @@ public class OperandUtils {
         if (result != null) {
             return result;
         }
+        requested(REQUEST_CREATE_OR_REPLACE);
         return withName.createOrReplace(resource);
     }
 
+    /**
+     * Run the writes, passing the listener each request made by createOrUpdate on this thread
+     */
+    public static void countRequests(Consumer<String> listener, Runnable writes) {
+        Consumer<String> previous = REQUEST_LISTENER.get();
+        REQUEST_LISTENER.set(listener);
+        try {
+            writes.run();
+        } finally {
+            if (previous == null) {
+                REQUEST_LISTENER.remove();
+            } else {
+                REQUEST_LISTENER.set(previous);
+            }
+        }
+    }
+
+    private static void requested(String request) {
+        Consumer<String> listener = REQUEST_LISTENER.get();
+        if (listener != null) {
+            listener.accept(request);
+        }
+    }
+
+    /**
+     * Write the resource with the given strategy
+     *
+     * @see #createOrUpdate(MixedOperation, HasMetadata)
+     * @see #serverSideApply(MixedOperation, HasMetadata)
+     */
+    public static <T extends HasMetadata> T createOrUpdate(MixedOperation<T, ?, ?> resources, T resource, ApplyStrategy strategy) {
+        if (strategy == ApplyStrategy.SERVER_SIDE_APPLY) {
+            return serverSideApply(resources, resource);
+        }
+        return createOrUpdate(resources, resource);
+    }
+
+    /**
+     * Create or update with a single server side apply, which needs no read.
+     * <br>
+     * The status and the {@link #SERVER_METADATA} are not sent - a resourceVersion would make the apply
+     * conditional.  The apply is forced, so the {@link #FIELD_MANAGER} takes ownership of every other
+     * field sent, even if it is set by another manager.  So the resource should hold just the desired
+     * state - values copied from the current resource, such as server defaults, will be owned as well.
+     * Fields set by other managers that are not sent are left as is.
+     *
+     * @see ApplyStrategy#desiredBase(Object)
+     */
+    public static <T extends HasMetadata> T serverSideApply(MixedOperation<T, ?, ?> resources, T resource) {
+        T applied = applyBody(resource);
+        requested(REQUEST_APPLY);
+        return resources
+                .inNamespace(resource.getMetadata().getNamespace())
+                .withName(resource.getMetadata().getName())
+                .patch(new PatchContext.Builder()
+                        .withPatchType(PatchType.SERVER_SIDE_APPLY)
+                        .withFieldManager(FIELD_MANAGER)
+                        .withForce(true)
+                        .build(), applied);
+    }
+
+    /**
+     * A copy of the resource without its status and server set metadata
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends HasMetadata> T applyBody(T resource) {
+        ObjectNode tree = Serialization.jsonMapper().valueToTree(resource);
+        tree.remove("status");
+        JsonNode metadata = tree.get("metadata");
+        if (metadata instanceof ObjectNode) {
+            ((ObjectNode) metadata).remove(SERVER_METADATA);
+        }
+        return Serialization.jsonMapper().convertValue(tree, (Class<T>) resource.getClass());
+    }
+
     public static List<Toleration> profileTolerations(ManagedKafka managedKafka, ManagedKafkaAgent agent, boolean dynamicScalingScheduling) {
         String type =
                 OperandUtils.getOrDefault(managedKafka.getMetadata().getLabels(), ManagedKafka.PROFILE_TYPE, null);
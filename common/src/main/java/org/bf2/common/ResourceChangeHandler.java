@@ -0,0 +1,61 @@
+package org.bf2.common;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A handler for an informer on a single named resource, that calls back only when the
+ * resource is created, replaced (a new uid), or modified (a new resourceVersion).
+ * <br>
+ * The callback receives null when the resource is deleted.
+ */
+public class ResourceChangeHandler<T extends HasMetadata> implements ResourceEventHandler<T> {
+
+    private final Consumer<T> onChange;
+
+    private String uid;
+    private String resourceVersion;
+
+    public ResourceChangeHandler(Consumer<T> onChange) {
+        this.onChange = onChange;
+    }
+
+    @Override
+    public void onAdd(T obj) {
+        changed(obj);
+    }
+
+    @Override
+    public void onUpdate(T oldObj, T newObj) {
+        changed(newObj);
+    }
+
+    @Override
+    public void onDelete(T obj, boolean deletedFinalStateUnknown) {
+        synchronized (this) {
+            if (uid == null) {
+                return;
+            }
+            uid = null;
+            resourceVersion = null;
+        }
+        onChange.accept(null);
+    }
+
+    private void changed(T obj) {
+        synchronized (this) {
+            if (Objects.equals(uid, obj.getMetadata().getUid())
+                    && Objects.equals(resourceVersion, obj.getMetadata().getResourceVersion())) {
+                // a relist of what we've already seen
+                return;
+            }
+            uid = obj.getMetadata().getUid();
+            resourceVersion = obj.getMetadata().getResourceVersion();
+        }
+        onChange.accept(obj);
+    }
+
+}
@@ -0,0 +1,102 @@
+package org.bf2.common;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.OwnerReference;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Built-in secondary indexers for use with {@link ResourceInformerFactory#create} and
+ * {@link ResourceInformer#byIndex(String, String)}
+ */
+public class ResourceIndexers {
+
+    /**
+     * Indexes by the uid of each owner reference
+     */
+    public static final String OWNER_UID = "ownerUid";
+
+    /**
+     * Indexes by the namespace key of the Kafka named by the strimzi.io/cluster label
+     *
+     * @see #strimziClusterKey(String, String)
+     */
+    public static final String STRIMZI_CLUSTER = "strimziCluster";
+
+    /**
+     * Indexes by the ManagedKafka id annotation, or for a namespace the managedkafka id label
+     */
+    public static final String MANAGEDKAFKA_ID = "managedKafkaId";
+
+    public static final String STRIMZI_CLUSTER_LABEL = "strimzi.io/cluster";
+    public static final String MANAGEDKAFKA_ID_LABEL = ManagedKafka.BF2_DOMAIN + "managedkafka-id";
+
+    private ResourceIndexers() {
+        // static utilities
+    }
+
+    public static <T extends HasMetadata> Map<String, Function<T, List<String>>> indexers(String... names) {
+        Map<String, Function<T, List<String>>> result = new LinkedHashMap<>();
+        for (String name : names) {
+            result.put(name, indexer(name));
+        }
+        return result;
+    }
+
+    public static <T extends HasMetadata> Function<T, List<String>> indexer(String name) {
+        switch (name) {
+        case OWNER_UID:
+            return ResourceIndexers::ownerUids;
+        case STRIMZI_CLUSTER:
+            return ResourceIndexers::strimziCluster;
+        case MANAGEDKAFKA_ID:
+            return ResourceIndexers::managedKafkaId;
+        default:
+            throw new IllegalArgumentException("Unknown indexer " + name);
+        }
+    }
+
+    static List<String> ownerUids(HasMetadata resource) {
+        return resource.getMetadata()
+                .getOwnerReferences()
+                .stream()
+                .map(OwnerReference::getUid)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    static List<String> strimziCluster(HasMetadata resource) {
+        ObjectMeta metadata = resource.getMetadata();
+        String cluster = OperandUtils.getOrDefault(metadata.getLabels(), STRIMZI_CLUSTER_LABEL, null);
+        if (cluster == null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(strimziClusterKey(metadata.getNamespace(), cluster));
+    }
+
+    static List<String> managedKafkaId(HasMetadata resource) {
+        ObjectMeta metadata = resource.getMetadata();
+        String id = OperandUtils.getOrDefault(metadata.getAnnotations(), ManagedKafka.ID, null);
+        if (id == null) {
+            id = OperandUtils.getOrDefault(metadata.getLabels(), MANAGEDKAFKA_ID_LABEL, null);
+        }
+        return id == null ? Collections.emptyList() : Collections.singletonList(id);
+    }
+
+    /**
+     * The {@link #STRIMZI_CLUSTER} index key, which is also the key of the Kafka in its informer
+     */
+    public static String strimziClusterKey(String namespace, String cluster) {
+        return Cache.namespaceKeyFunc(namespace, cluster);
+    }
+
+}
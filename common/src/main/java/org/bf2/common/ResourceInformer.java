@@ -27,6 +27,15 @@ public class ResourceInformer<T extends HasMetadata> {
         return informer.getIndexer().byIndex(Cache.NAMESPACE_INDEX, namesapce);
     }
 
+    /**
+     * Lookup by an index registered when the informer was created
+     *
+     * @see ResourceIndexers
+     */
+    public List<T> byIndex(String indexName, String indexKey) {
+        return informer.getIndexer().byIndex(indexName, indexKey);
+    }
+
     public void addEventHandler(ResourceEventHandler<T> handler) {
         informer.addEventHandler(handler);
     }
@@ -7,7 +7,13 @@ import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
 
 import javax.enterprise.context.ApplicationScoped;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 @ApplicationScoped
 public class ResourceInformerFactory {
@@ -17,7 +23,48 @@ public class ResourceInformerFactory {
     public <T extends HasMetadata> ResourceInformer<T> create(Class<T> type,
             Informable<T> informable,
             ResourceEventHandler<? super T> eventHandler) {
-        SharedIndexInformer<T> informer = informable.inform();
+        return create(type, informable, eventHandler, null);
+    }
+
+    /**
+     * Create and start an informer, where each object is transformed before being
+     * stored, so that lookups return the transformed objects.
+     * <br>
+     * Event handlers are passed the received object as the new object, and the stored object
+     * as the old.  So a handler sees a transformed new object only if the transform modifies the
+     * object in place, as {@link #withoutManagedFields()} does, and not if it returns a new
+     * instance, as {@link #metadataOnly(Class)} does.
+     */
+    public <T extends HasMetadata> ResourceInformer<T> create(Class<T> type,
+            Informable<T> informable,
+            ResourceEventHandler<? super T> eventHandler,
+            UnaryOperator<T> transform) {
+        return create(type, informable, eventHandler, transform, Collections.emptyMap());
+    }
+
+    /**
+     * Create and start an informer with named secondary indexers, which may then be used
+     * with {@link ResourceInformer#byIndex(String, String)}.
+     *
+     * @see ResourceIndexers for the built-in indexers
+     */
+    public <T extends HasMetadata> ResourceInformer<T> create(Class<T> type,
+            Informable<T> informable,
+            ResourceEventHandler<? super T> eventHandler,
+            UnaryOperator<T> transform,
+            Map<String, Function<T, List<String>>> indexers) {
+        SharedIndexInformer<T> informer;
+        if (transform == null && indexers.isEmpty()) {
+            informer = informable.inform();
+        } else {
+            informer = informable.runnableInformer(0);
+            if (transform != null) {
+                informer.itemStore(new TransformingItemStore<>(transform));
+            }
+            // indexers can't be added once running
+            informer.addIndexers(indexers);
+            informer.run();
+        }
         // https://github.com/fabric8io/kubernetes-client/issues/4082 add the handler after it's started so that we see the full state of the cache
         if (eventHandler != null) {
             informer.addEventHandler((ResourceEventHandler) eventHandler);
@@ -26,6 +73,63 @@ public class ResourceInformerFactory {
         return new ResourceInformer<>(informer);
     }
 
+    /**
+     * Create and start an informer on a single named resource, such as from
+     * {@code client.secrets().inNamespace(namespace).withName(name)}, in place of polling for it.
+     *
+     * @see ResourceChangeHandler
+     */
+    public <T extends HasMetadata> ResourceInformer<T> watch(Class<T> type,
+            Informable<T> resource,
+            Consumer<T> onChange) {
+        return create(type, resource, new ResourceChangeHandler<>(onChange));
+    }
+
+    /**
+     * A transform that removes the managedFields, which are not used by informer clients
+     */
+    public static <T extends HasMetadata> UnaryOperator<T> withoutManagedFields() {
+        return resource -> {
+            if (resource.getMetadata() != null) {
+                resource.getMetadata().setManagedFields(null);
+            }
+            return resource;
+        };
+    }
+
+    /**
+     * Create and start an informer that holds only the metadata of each object, for consumers
+     * that need just names, labels, owners or resourceVersions.
+     *
+     * @see #metadataOnly(Class)
+     */
+    public <T extends HasMetadata> ResourceInformer<T> createMetadataOnly(Class<T> type,
+            Informable<T> informable,
+            ResourceEventHandler<? super T> eventHandler) {
+        return create(type, informable, eventHandler, metadataOnly(type));
+    }
+
+    /**
+     * A transform that replaces each object with an empty instance of the type holding just the
+     * metadata, without managedFields - the equivalent of a PartialObjectMetadata
+     */
+    public static <T extends HasMetadata> UnaryOperator<T> metadataOnly(Class<T> type) {
+        return resource -> {
+            T result;
+            try {
+                result = type.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException(type + " cannot be stored metadata only", e);
+            }
+            result.setApiVersion(resource.getApiVersion());
+            result.setMetadata(resource.getMetadata());
+            if (result.getMetadata() != null) {
+                result.getMetadata().setManagedFields(null);
+            }
+            return result;
+        };
+    }
+
     /**
      * Return true if all informers are watching.  Will be false only after something
      * has abnormally failed with the watch.
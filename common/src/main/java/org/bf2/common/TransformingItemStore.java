@@ -0,0 +1,27 @@
+package org.bf2.common;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.informers.cache.BasicItemStore;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * An informer store that applies a transform to each object before it is stored,
+ * typically to remove what is not needed so that less is held in memory.
+ */
+public class TransformingItemStore<T extends HasMetadata> extends BasicItemStore<T> {
+
+    private final UnaryOperator<T> transform;
+
+    public TransformingItemStore(UnaryOperator<T> transform) {
+        super(Cache::metaNamespaceKeyFunc);
+        this.transform = transform;
+    }
+
+    @Override
+    public T put(String key, T obj) {
+        return super.put(key, transform.apply(obj));
+    }
+
+}
@@ -1,10 +1,13 @@
 package org.bf2.common;
 
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
 import org.junit.jupiter.api.Test;
 
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class OperandUtilsTest {
 
@@ -14,4 +17,36 @@ public class OperandUtilsTest {
         assertEquals("value", OperandUtils.getOrDefault(Map.of("key", "value"), "key", "1"));
     }
 
+    @Test public void testApplyBody() {
+        Service current = new ServiceBuilder()
+                .withNewMetadata()
+                    .withName("service")
+                    .withNamespace("namespace")
+                    .withUid("uid")
+                    .withResourceVersion("1")
+                    .withCreationTimestamp("2022-01-01T00:00:00Z")
+                    .addToLabels("key", "value")
+                .endMetadata()
+                .withNewSpec()
+                    .withType("ClusterIP")
+                .endSpec()
+                .withNewStatus()
+                    .withNewLoadBalancer()
+                    .endLoadBalancer()
+                .endStatus()
+                .build();
+
+        Service applied = OperandUtils.applyBody(current);
+
+        assertNull(applied.getStatus());
+        assertNull(applied.getMetadata().getUid());
+        assertNull(applied.getMetadata().getResourceVersion());
+        assertNull(applied.getMetadata().getCreationTimestamp());
+        assertEquals("service", applied.getMetadata().getName());
+        assertEquals(Map.of("key", "value"), applied.getMetadata().getLabels());
+        assertEquals(current.getSpec(), applied.getSpec());
+        // the original is unchanged
+        assertEquals("uid", current.getMetadata().getUid());
+    }
+
 }
@@ -0,0 +1,45 @@
+package org.bf2.common;
+
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ResourceChangeHandlerTest {
+
+    @Test
+    public void testOnlyChangesCalledBack() {
+        List<Secret> changes = new ArrayList<>();
+        ResourceChangeHandler<Secret> handler = new ResourceChangeHandler<>(changes::add);
+
+        Secret initial = secret("a", "1");
+        handler.onAdd(initial);
+        // a relist of the same version
+        handler.onUpdate(initial, secret("a", "1"));
+        Secret modified = secret("a", "2");
+        handler.onUpdate(initial, modified);
+        handler.onDelete(modified, false);
+        handler.onDelete(modified, true);
+        // recreated with the same resourceVersion
+        Secret recreated = secret("b", "2");
+        handler.onAdd(recreated);
+
+        assertEquals(Arrays.asList(initial, modified, null, recreated), changes);
+    }
+
+    private static Secret secret(String uid, String resourceVersion) {
+        return new SecretBuilder()
+                .withNewMetadata()
+                .withName("secret")
+                .withUid(uid)
+                .withResourceVersion(resourceVersion)
+                .endMetadata()
+                .build();
+    }
+
+}
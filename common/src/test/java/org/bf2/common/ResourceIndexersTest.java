@@ -0,0 +1,69 @@
+package org.bf2.common;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.NamespaceBuilder;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ResourceIndexersTest {
+
+    @Test
+    public void testOwnerUid() {
+        ConfigMap owned = new ConfigMapBuilder()
+                .withNewMetadata()
+                .withName("owned")
+                .addNewOwnerReference().withKind("Kafka").withName("a").withUid("uid-a").endOwnerReference()
+                .addNewOwnerReference().withKind("Kafka").withName("b").endOwnerReference()
+                .endMetadata()
+                .build();
+
+        assertEquals(Arrays.asList("uid-a"), ResourceIndexers.<ConfigMap>indexer(ResourceIndexers.OWNER_UID).apply(owned));
+        assertEquals(Collections.emptyList(), ResourceIndexers.ownerUids(new ConfigMapBuilder().withNewMetadata().endMetadata().build()));
+    }
+
+    @Test
+    public void testStrimziCluster() {
+        ConfigMap labeled = new ConfigMapBuilder()
+                .withNewMetadata()
+                .withNamespace("ns")
+                .withName("pvc")
+                .addToLabels(ResourceIndexers.STRIMZI_CLUSTER_LABEL, "cluster")
+                .endMetadata()
+                .build();
+
+        assertEquals(Arrays.asList("ns/cluster"), ResourceIndexers.strimziCluster(labeled));
+        assertEquals(Collections.emptyList(), ResourceIndexers.strimziCluster(new ConfigMapBuilder().withNewMetadata().endMetadata().build()));
+    }
+
+    @Test
+    public void testManagedKafkaId() {
+        ConfigMap annotated = new ConfigMapBuilder()
+                .withNewMetadata()
+                .addToAnnotations(ManagedKafka.ID, "id1")
+                .endMetadata()
+                .build();
+
+        assertEquals(Arrays.asList("id1"), ResourceIndexers.managedKafkaId(annotated));
+        assertEquals(Arrays.asList("id2"), ResourceIndexers.managedKafkaId(new NamespaceBuilder()
+                .withNewMetadata()
+                .addToLabels(ResourceIndexers.MANAGEDKAFKA_ID_LABEL, "id2")
+                .endMetadata()
+                .build()));
+    }
+
+    @Test
+    public void testIndexers() {
+        List<String> names = Arrays.asList(ResourceIndexers.OWNER_UID, ResourceIndexers.STRIMZI_CLUSTER, ResourceIndexers.MANAGEDKAFKA_ID);
+        assertEquals(names, List.copyOf(ResourceIndexers.indexers(names.toArray(new String[0])).keySet()));
+        assertThrows(IllegalArgumentException.class, () -> ResourceIndexers.indexer("unknown"));
+    }
+
+}
@@ -0,0 +1,44 @@
+package org.bf2.common;
+
+import io.fabric8.kubernetes.api.model.ManagedFieldsEntry;
+import io.fabric8.kubernetes.api.model.Node;
+import io.fabric8.kubernetes.api.model.NodeBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ResourceInformerFactoryTest {
+
+    @Test
+    public void testMetadataOnly() {
+        Node node = new NodeBuilder()
+                .withNewMetadata()
+                .withName("node")
+                .withResourceVersion("1")
+                .withLabels(Map.of("zone", "a"))
+                .withManagedFields(new ManagedFieldsEntry())
+                .endMetadata()
+                .withNewSpec()
+                .withPodCIDR("10.0.0.0/24")
+                .endSpec()
+                .withNewStatus()
+                .withPhase("Running")
+                .endStatus()
+                .build();
+
+        Node stored = ResourceInformerFactory.metadataOnly(Node.class).apply(node);
+
+        assertEquals("Node", stored.getKind());
+        assertEquals("v1", stored.getApiVersion());
+        assertEquals("node", stored.getMetadata().getName());
+        assertEquals("1", stored.getMetadata().getResourceVersion());
+        assertEquals(Map.of("zone", "a"), stored.getMetadata().getLabels());
+        assertNull(stored.getMetadata().getManagedFields());
+        assertNull(stored.getSpec());
+        assertNull(stored.getStatus());
+    }
+
+}
@@ -1,32 +1,138 @@
 package org.bf2.operator.events;
 
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
 import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ManagedFieldsEntry;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
 import io.fabric8.kubernetes.client.CustomResource;
 import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.utils.Serialization;
 import io.javaoperatorsdk.operator.processing.event.ResourceID;
 import io.javaoperatorsdk.operator.processing.event.source.AbstractEventSource;
 import io.javaoperatorsdk.operator.processing.event.source.controller.ResourceAction;
 import io.javaoperatorsdk.operator.processing.event.source.controller.ResourceEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Turns events for owned resources into events for their owner.
+ * <br>
+ * Updates that only change the resourceVersion or managedFields are dropped.  The events for
+ * each owner are debounced - an owner event is sent once there have been no further events for
+ * the quiet period, but no later than the max delay after the first.
+ */
 @ApplicationScoped
 public class ResourceEventSource extends AbstractEventSource implements ResourceEventHandler<HasMetadata> {
 
     private static Logger log = Logger.getLogger(ResourceEventSource.class);
 
+    private static final String NAME = "resource.events";
+
+    private static final class Pending {
+        final long firstNanos;
+        long dueNanos;
+
+        Pending(long firstNanos, long dueNanos) {
+            this.firstNanos = firstNanos;
+            this.dueNanos = dueNanos;
+        }
+    }
+
+    /* the properties compared by isVersionOnlyChange, other than the metadata */
+    private static final ClassValue<List<AnnotatedMember>> PROPERTIES = new ClassValue<>() {
+        @Override
+        protected List<AnnotatedMember> computeValue(Class<?> type) {
+            BeanDescription description = Serialization.jsonMapper()
+                    .getSerializationConfig()
+                    .introspect(Serialization.jsonMapper().constructType(type));
+            List<AnnotatedMember> result = new ArrayList<>();
+            for (BeanPropertyDefinition property : description.findProperties()) {
+                AnnotatedMember accessor = property.getAccessor();
+                if (accessor != null && !"metadata".equals(property.getName())) {
+                    result.add(accessor);
+                }
+            }
+            if (description.findAnyGetter() != null) {
+                result.add(description.findAnyGetter());
+            }
+            result.forEach(member -> member.fixAccess(false));
+            return result;
+        }
+    };
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "resource.events.quiet-period", defaultValue = "1s")
+    Duration quietPeriod;
+
+    @ConfigProperty(name = "resource.events.max-delay", defaultValue = "10s")
+    Duration maxDelay;
+
+    private Counter receivedCounter;
+    private Counter droppedCounter;
+    private Counter triggeredCounter;
+
+    private final Map<ResourceID, Pending> pending = new HashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void init() {
+        receivedCounter = Counter.builder(NAME + ".received")
+                .description("The number of owned resource events received")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder(NAME + ".dropped")
+                .description("The number of owned resource updates dropped as only the resourceVersion or managedFields changed")
+                .register(meterRegistry);
+        triggeredCounter = Counter.builder(NAME + ".triggered")
+                .description("The number of owner events sent, each of which triggers a reconcile")
+                .register(meterRegistry);
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
     @Override
     public void onAdd(HasMetadata resource) {
         log.debugf("Add event received for %s %s/%s", resource.getKind(), resource.getMetadata().getNamespace(), resource.getMetadata().getName());
+        receivedCounter.increment();
         handleEvent(resource, ResourceAction.UPDATED);
     }
 
     @Override
     public void onUpdate(HasMetadata oldResource, HasMetadata newResource) {
         log.debugf("Update event received for %s %s/%s", oldResource.getKind(), oldResource.getMetadata().getNamespace(), oldResource.getMetadata().getName());
+        receivedCounter.increment();
+        // the same instance is an intentional resync
+        if (oldResource != newResource && isVersionOnlyChange(oldResource, newResource)) {
+            droppedCounter.increment();
+            return;
+        }
         if (!oldResource.getMetadata().getOwnerReferences().isEmpty() && (newResource.getMetadata().getOwnerReferences().isEmpty() ||
                 !Objects.equals(oldResource.getMetadata().getOwnerReferences().get(0).getUid(), newResource.getMetadata().getOwnerReferences().get(0).getUid()))) {
             handleEvent(oldResource, ResourceAction.UPDATED);
@@ -38,6 +144,41 @@ public class ResourceEventSource extends AbstractEventSource implements Resource
     public void onDelete(HasMetadata resource, boolean deletedFinalStateUnknown) {
         log.debugf("Delete event received for %s %s/%s with deletedFinalStateUnknown %s", resource.getKind(),
                 resource.getMetadata().getNamespace(), resource.getMetadata().getName(), deletedFinalStateUnknown);
+        receivedCounter.increment();
+        handleEvent(resource, ResourceAction.UPDATED);
+    }
+
+    /**
+     * Return true if the resources differ only by resourceVersion or managedFields
+     */
+    public static boolean isVersionOnlyChange(HasMetadata oldResource, HasMetadata newResource) {
+        if (oldResource.getClass() != newResource.getClass()
+                || !withoutVersion(oldResource.getMetadata()).equals(withoutVersion(newResource.getMetadata()))) {
+            return false;
+        }
+        for (AnnotatedMember property : PROPERTIES.get(oldResource.getClass())) {
+            if (!Objects.equals(property.getValue(oldResource), property.getValue(newResource))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ObjectMeta withoutVersion(ObjectMeta metadata) {
+        if (metadata == null) {
+            return new ObjectMeta();
+        }
+        return new ObjectMetaBuilder(metadata)
+                .withResourceVersion(null)
+                .withManagedFields((List<ManagedFieldsEntry>) null)
+                .build();
+    }
+
+    /**
+     * Send a (debounced) event for the owner of the resource, such as when something
+     * the resource depends upon has changed.  It is not counted as a received event.
+     */
+    public void handleOwnerEvent(HasMetadata resource) {
         handleEvent(resource, ResourceAction.UPDATED);
     }
 
@@ -45,10 +186,46 @@ public class ResourceEventSource extends AbstractEventSource implements Resource
         // the operator may not have inited yet
         if (getEventHandler() != null) {
             ResourceID.fromFirstOwnerReference(resource).ifPresentOrElse(
-                    ownerId -> getEventHandler().handleEvent(new ResourceEvent(action, ownerId, null )),
+                    this::debounce,
                     () -> log.warnf("%s %s/%s does not have OwnerReference", resource.getKind(), resource.getMetadata().getNamespace(), resource.getMetadata().getName()));
         }
     }
+
+    void debounce(ResourceID ownerId) {
+        if (quietPeriod.isZero()) {
+            send(ownerId);
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (pending) {
+            Pending existing = pending.get(ownerId);
+            if (existing != null) {
+                existing.dueNanos = Math.min(now + quietPeriod.toNanos(), existing.firstNanos + maxDelay.toNanos());
+                return;
+            }
+            pending.put(ownerId, new Pending(now, now + quietPeriod.toNanos()));
+        }
+        scheduler.schedule(() -> fire(ownerId), quietPeriod.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void fire(ResourceID ownerId) {
+        synchronized (pending) {
+            long remaining = pending.get(ownerId).dueNanos - System.nanoTime();
+            if (remaining > 0) {
+                // more events arrived during the quiet period
+                scheduler.schedule(() -> fire(ownerId), remaining, TimeUnit.NANOSECONDS);
+                return;
+            }
+            pending.remove(ownerId);
+        }
+        send(ownerId);
+    }
+
+    private void send(ResourceID ownerId) {
+        triggeredCounter.increment();
+        getEventHandler().handleEvent(new ResourceEvent(ResourceAction.UPDATED, ownerId, null));
+    }
+
     public void handleEvent(CustomResource resource) {
         if (getEventHandler() != null) {
             getEventHandler().handleEvent(new ResourceEvent(ResourceAction.UPDATED, ResourceID.fromResource(resource), null));
@@ -8,9 +8,11 @@ import io.fabric8.kubernetes.api.model.SecretBuilder;
 import io.fabric8.kubernetes.api.model.apps.Deployment;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.dsl.Resource;
-import io.quarkus.scheduler.Scheduled;
+import io.quarkus.runtime.Startup;
 import org.bf2.common.ManagedKafkaResourceClient;
 import org.bf2.common.OperandUtils;
+import org.bf2.common.ResourceInformer;
+import org.bf2.common.ResourceInformerFactory;
 import org.bf2.operator.resources.v1alpha1.ManagedKafka;
 import org.eclipse.microprofile.config.ConfigProvider;
 import org.jboss.logging.Logger;
@@ -21,13 +23,15 @@ import javax.inject.Inject;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+@Startup
 @ApplicationScoped
 public class ImagePullSecretManager {
 
@@ -43,8 +47,14 @@ public class ImagePullSecretManager {
     @Inject
     InformerManager informerManager;
 
+    @Inject
+    ResourceInformerFactory resourceInformerFactory;
+
     private List<LocalObjectReference> imagePullSecretRefs;
 
+    /* a watch of each pull secret, by name, that propagates changes */
+    private final Map<String, ResourceInformer<Secret>> secretWatches = new ConcurrentHashMap<>();
+
     private volatile Map<String, Secret> secrets;
 
     private static String getSecretName(ManagedKafka managedKafka, String name) {
@@ -126,46 +136,40 @@ public class ImagePullSecretManager {
                         imagePullSecretRefs.stream().map(LocalObjectReference::getName).collect(Collectors.joining(", ")));
             }
         }
+        imagePullSecretRefs.forEach(ref -> secretWatches.computeIfAbsent(ref.getName(),
+                name -> resourceInformerFactory.watch(Secret.class,
+                        client.secrets().inNamespace(client.getNamespace()).withName(name), secret -> secretChanged(name, secret))));
     }
 
-    Secret secretFromReference(LocalObjectReference ref) {
-        return client.secrets().inNamespace(client.getNamespace()).withName(ref.getName()).get();
-    }
-
-    @Scheduled(every = "60s")
-    void checkSecret() {
-        Map<String, Secret> newSecretMeta = imagePullSecretRefs.stream()
-                .map(this::secretFromReference)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toMap(s->s.getMetadata().getName(), Function.identity()));
-
-        Collection<Secret> updatedSecrets;
-        if (this.secrets == null) {
-            // if the secrets have changed in between pod stop and now, we won't detect it
-            // so propagate just in case
-            updatedSecrets = newSecretMeta.values();
-        } else {
-            updatedSecrets = newSecretMeta.entrySet().stream()
-                    .map(this::updatedSecretOrNull)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
+    /**
+     * Called by the watch of the named pull secret with its new state, or null if it was deleted.
+     * The first time each secret is seen it is propagated, as it may have changed while the
+     * operator was stopped.
+     */
+    synchronized void secretChanged(String name, Secret secret) {
+        Map<String, Secret> newSecrets = this.secrets == null ? new LinkedHashMap<>() : new LinkedHashMap<>(this.secrets);
+        if (secret == null) {
+            newSecrets.remove(name);
+            this.secrets = newSecrets;
+            return;
         }
-        this.secrets = newSecretMeta;
+        Secret previous = newSecrets.put(name, secret);
+        this.secrets = newSecrets;
 
-        if (!updatedSecrets.isEmpty()) {
-            if (log.isInfoEnabled()) {
-                log.infof("Propagating secrets [%s]",
-                        updatedSecrets.stream().map(s -> s.getMetadata().getName()).collect(Collectors.joining(", ")));
-            }
-            managedKafkaResourceClient.list().stream()
-                .forEach(mk -> {
-                    try {
-                        propagateSecrets(client, mk, updatedSecrets);
-                    } catch (Exception e) {
-                        log.warnf("Exception propagating pull secrets to namespace %s: %s", mk, e.getMessage());
-                    }
-                });
+        if (!secretUpdated(previous == null ? null : previous.getMetadata(), secret.getMetadata())) {
+            log.tracef("No change in image pull secret: %s", name);
+            return;
         }
+        log.infof("Propagating image pull secret %s", name);
+        List<Secret> updatedSecrets = List.of(secret);
+        managedKafkaResourceClient.list().stream()
+            .forEach(mk -> {
+                try {
+                    propagateSecrets(client, mk, updatedSecrets);
+                } catch (Exception e) {
+                    log.warnf("Exception propagating pull secrets to namespace %s: %s", mk, e.getMessage());
+                }
+            });
     }
 
     public List<LocalObjectReference> getOperatorImagePullSecrets(ManagedKafka managedKafka) {
@@ -174,23 +178,6 @@ public class ImagePullSecretManager {
                 .collect(Collectors.toList());
     }
 
-    Secret updatedSecretOrNull(Map.Entry<String, Secret> entry) {
-        final String secretName = entry.getKey();
-        Secret secret = this.secrets.get(secretName);
-        final ObjectMeta previousMeta = secret != null ? secret.getMetadata() : null;
-        final Secret currentSecret = entry.getValue();
-        final ObjectMeta currentMeta = entry.getValue().getMetadata();
-
-        if (secretUpdated(previousMeta, currentMeta)) {
-            log.infof("Changed detected in image pull secret: %s", secretName);
-            return currentSecret;
-        } else {
-            log.tracef("No change in image pull secret: %s", secretName);
-        }
-
-        return null;
-    }
-
     boolean secretUpdated(ObjectMeta previous, ObjectMeta current) {
         return previous == null || !previous.getResourceVersion().equals(current.getResourceVersion())
                 || !previous.getUid().equals(current.getUid());
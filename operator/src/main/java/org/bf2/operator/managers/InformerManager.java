@@ -14,12 +14,12 @@ import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
 import io.fabric8.kubernetes.client.informers.cache.Cache;
 import io.fabric8.openshift.api.model.Route;
-import io.javaoperatorsdk.operator.processing.event.source.controller.ResourceAction;
 import io.quarkus.runtime.Startup;
 import io.strimzi.api.kafka.KafkaList;
 import io.strimzi.api.kafka.model.Kafka;
 import org.bf2.common.ManagedKafkaAgentResourceClient;
 import org.bf2.common.OperandUtils;
+import org.bf2.common.ResourceIndexers;
 import org.bf2.common.ResourceInformer;
 import org.bf2.common.ResourceInformerFactory;
 import org.bf2.operator.events.ResourceEventSource;
@@ -35,6 +35,8 @@ import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 @Startup
@@ -78,32 +80,36 @@ public class InformerManager {
 
         configMapInformer = resourceInformerFactory.create(ConfigMap.class, filter(kubernetesClient.configMaps()), eventSource);
 
-        secretInformer = resourceInformerFactory.create(Secret.class, filter(kubernetesClient.secrets()), eventSource);
+        // the data is read by several consumers, so the secrets can't be metadata only
+        secretInformer = resourceInformerFactory.create(Secret.class, filter(kubernetesClient.secrets()), eventSource,
+                ResourceInformerFactory.withoutManagedFields());
 
-        // pvcs have an owner reference set to the kafka, not managedkakfa, so we need some lookup logic in the handleEvent
+        // pvcs have an owner reference set to the kafka, not managedkakfa, so the kafka is resolved first
         pvcInformer = resourceInformerFactory.create(PersistentVolumeClaim.class,
                 kubernetesClient.persistentVolumeClaims().inAnyNamespace().withLabel("app.kubernetes.io/name", "kafka"),
-                new ResourceEventSource() {
+                new ResourceEventHandler<PersistentVolumeClaim>() {
 
                     @Override
-                    protected void handleEvent(HasMetadata resource, ResourceAction action) {
-                        if (kafkaInformer != null) {
-                            // TODO: could index by uid, or use namespace
-                            String name =
-                                    OperandUtils.getOrDefault(resource.getMetadata().getLabels(), "strimzi.io/cluster", null);
-                            if (name != null) {
-                                Kafka kafka = kafkaInformer
-                                        .getByKey(Cache.namespaceKeyFunc(resource.getMetadata().getNamespace(), name));
-                                if (kafka != null) {
-                                    handleEvent(kafka, ResourceAction.UPDATED);
-                                }
-                            }
+                    public void onAdd(PersistentVolumeClaim pvc) {
+                        pvcChanged(pvc);
+                    }
+
+                    @Override
+                    public void onUpdate(PersistentVolumeClaim oldPvc, PersistentVolumeClaim newPvc) {
+                        if (oldPvc == newPvc || !ResourceEventSource.isVersionOnlyChange(oldPvc, newPvc)) {
+                            pvcChanged(newPvc);
                         }
                     }
-                });
+
+                    @Override
+                    public void onDelete(PersistentVolumeClaim pvc, boolean deletedFinalStateUnknown) {
+                        pvcChanged(pvc);
+                    }
+                }, InformerManager::withoutPvcSpec, ResourceIndexers.indexers(ResourceIndexers.STRIMZI_CLUSTER));
 
         if (isOpenShift()) {
-            routeInformer = resourceInformerFactory.create(Route.class, filterManagedByFleetshardOrStrimzi(openShiftSupport.adapt(kubernetesClient).routes()), eventSource);
+            routeInformer = resourceInformerFactory.create(Route.class, filterManagedByFleetshardOrStrimzi(openShiftSupport.adapt(kubernetesClient).routes()), eventSource,
+                    null, ResourceIndexers.indexers(ResourceIndexers.OWNER_UID));
         }
 
         // TODO: replace this with the resource cache maintained by the controller
@@ -113,6 +119,22 @@ public class InformerManager {
                 null); // these events are not processed by the event source
     }
 
+    void pvcChanged(PersistentVolumeClaim pvc) {
+        Kafka kafka = getOwningKafka(pvc);
+        if (kafka != null) {
+            eventSource.handleOwnerEvent(kafka);
+        }
+    }
+
+    /**
+     * Only the metadata and the status capacity of the pvcs are used
+     */
+    static PersistentVolumeClaim withoutPvcSpec(PersistentVolumeClaim pvc) {
+        pvc.setSpec(null);
+        pvc.getMetadata().setManagedFields(null);
+        return pvc;
+    }
+
     static <T extends HasMetadata> FilterWatchListDeletable<T, ? extends KubernetesResourceList<T>> filter(
             MixedOperation<T, ? extends KubernetesResourceList<T>, ?> mixedOperation) {
         return mixedOperation.inAnyNamespace().withLabels(OperandUtils.getDefaultLabels());
@@ -159,14 +181,22 @@ public class InformerManager {
 
     public Stream<Route> getRoutesInNamespace(String namespace) {
         if (isOpenShift()) {
-            return routeInformer.getList().stream()
-                    .filter(r -> r.getMetadata().getNamespace().equals(namespace));
+            return routeInformer.getByNamespace(namespace).stream();
         } else {
             log.warn("Not running on OpenShift cluster, Routes are not available");
             return Stream.empty();
         }
     }
 
+    public List<Route> getRoutesOwnedBy(String ownerUid) {
+        if (isOpenShift()) {
+            return routeInformer.byIndex(ResourceIndexers.OWNER_UID, ownerUid);
+        } else {
+            log.warn("Not running on OpenShift cluster, Routes are not available");
+            return Collections.emptyList();
+        }
+    }
+
     /**
      * Create the Kafka informer
      * NOTE: it's called when a Strimzi bundle is installed and Kafka related CRDs are available to be listed/watched
@@ -196,7 +226,7 @@ public class InformerManager {
             List<Kafka> kafkaList = kafkaInformer.getList();
             log.debugf("Kafka instances to be resynced: %d", kafkaList.size());
             kafkaList.forEach(k -> {
-                this.eventSource.onUpdate(k, k);
+                this.eventSource.handleOwnerEvent(k);
             });
         }
     }
@@ -228,7 +258,30 @@ public class InformerManager {
         this.eventSource.handleEvent(managedKafka);
     }
 
-    public List<PersistentVolumeClaim> getPvcsInNamespace(String namespace) {
-        return this.pvcInformer.getByNamespace(namespace);
+    public List<PersistentVolumeClaim> getPvcsForKafka(String namespace, String name) {
+        return this.pvcInformer.byIndex(ResourceIndexers.STRIMZI_CLUSTER, ResourceIndexers.strimziClusterKey(namespace, name));
+    }
+
+    /**
+     * Get the Kafka that a strimzi managed resource belongs to, first by its Kafka owner reference then
+     * by its strimzi.io/cluster label
+     */
+    Kafka getOwningKafka(HasMetadata resource) {
+        if (kafkaInformer == null) {
+            return null;
+        }
+        String namespace = resource.getMetadata().getNamespace();
+        Optional<Kafka> owner = resource.getMetadata()
+                .getOwnerReferences()
+                .stream()
+                .filter(ref -> Kafka.RESOURCE_KIND.equals(ref.getKind()))
+                .map(ref -> kafkaInformer.getByKey(Cache.namespaceKeyFunc(namespace, ref.getName())))
+                .filter(Objects::nonNull)
+                .findFirst();
+        if (owner.isPresent()) {
+            return owner.get();
+        }
+        String name = OperandUtils.getOrDefault(resource.getMetadata().getLabels(), ResourceIndexers.STRIMZI_CLUSTER_LABEL, null);
+        return name == null ? null : kafkaInformer.getByKey(ResourceIndexers.strimziClusterKey(namespace, name));
     }
 }
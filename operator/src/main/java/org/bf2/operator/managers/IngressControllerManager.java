@@ -229,11 +229,8 @@ public class IngressControllerManager {
     }
 
     public String getClusterDomain() {
-        return ingressControllerInformer.getList()
-                .stream()
-                .filter(ic -> "default".equals(ic.getMetadata().getName()))
+        return Optional.ofNullable(ingressControllerInformer.getByKey(Cache.namespaceKeyFunc(INGRESS_OPERATOR_NAMESPACE, "default")))
                 .map(ic -> ic.getStatus().getDomain())
-                .findFirst()
                 .orElse("apps.testing.domain.tld")
                 .replaceFirst("apps.", "");
     }
@@ -247,7 +244,8 @@ public class IngressControllerManager {
                 .withLabel(WORKER_NODE_LABEL)
                 .withoutLabel(INFRA_NODE_LABEL);
 
-        nodeInformer = resourceInformerFactory.create(Node.class, workerNodeFilter, new ResourceEventHandler<HasMetadata>() {
+        // only the labels are used
+        nodeInformer = resourceInformerFactory.createMetadataOnly(Node.class, workerNodeFilter, new ResourceEventHandler<HasMetadata>() {
 
             @Override
             public void onAdd(HasMetadata obj) {
@@ -748,17 +746,18 @@ public class IngressControllerManager {
     }
 
     private String getIngressControllerDomain(String ingressControllerName) {
-        return ingressControllerInformer.getList().stream()
-                .filter(ic -> ic.getMetadata().getName().equals(ingressControllerName))
+        return Optional.ofNullable(ingressControllerInformer.getByKey(Cache.namespaceKeyFunc(INGRESS_OPERATOR_NAMESPACE, ingressControllerName)))
                 .map(ic -> ROUTER_SUBDOMAIN + (ic.getStatus() != null ? ic.getStatus().getDomain() : ic.getSpec().getDomain()))
-                .findFirst()
                 .orElse("");
     }
 
     private Stream<Route> routesFor(ManagedKafka managedKafka) {
-        return informerManager.getRoutesInNamespace(managedKafka.getMetadata().getNamespace())
-                .filter(route -> isOwnedBy(route, Kafka.RESOURCE_KIND, AbstractKafkaCluster.kafkaClusterName(managedKafka), AbstractKafkaCluster.kafkaClusterNamespace(managedKafka))
-                        || isOwnedBy(route, managedKafka.getKind(), managedKafka.getMetadata().getName(), managedKafka.getMetadata().getNamespace()));
+        Kafka kafka = informerManager.getLocalKafka(AbstractKafkaCluster.kafkaClusterNamespace(managedKafka), AbstractKafkaCluster.kafkaClusterName(managedKafka));
+        return Stream.of(kafka != null ? kafka.getMetadata().getUid() : null, managedKafka.getMetadata().getUid())
+                .filter(Objects::nonNull)
+                .distinct()
+                .flatMap(uid -> informerManager.getRoutesOwnedBy(uid).stream())
+                .distinct();
     }
 
     private String getZoneForBrokerRoute(Route route) {
@@ -770,9 +769,8 @@ public class IngressControllerManager {
         }
 
         Map<String, String> labels = svc.getSpec().getSelector();
-        Stream<Pod> pods = brokerPodInformer.getList().stream()
-                .filter(p -> p.getMetadata().getNamespace().equals(namespace)
-                        && p.getMetadata().getLabels().entrySet().containsAll(labels.entrySet()));
+        Stream<Pod> pods = brokerPodInformer.getByNamespace(namespace).stream()
+                .filter(p -> p.getMetadata().getLabels().entrySet().containsAll(labels.entrySet()));
 
         return pods
                 .findFirst()
@@ -782,13 +780,6 @@ public class IngressControllerManager {
                 .orElse("");
     }
 
-    private boolean isOwnedBy(HasMetadata owned, String ownerKind, String ownerName, String ownerNamespace) {
-        boolean sameNamespace = ownerNamespace.equals(owned.getMetadata().getNamespace());
-        return sameNamespace &&
-                owned.getMetadata().getOwnerReferences().stream()
-                    .anyMatch(ref -> ref.getKind().equals(ownerKind) && ref.getName().equals(ownerName));
-    }
-
     List<String> getIngressContainerCommand() {
         return ingressContainerCommand;
     }
@@ -4,29 +4,48 @@ import io.fabric8.kubernetes.api.model.Service;
 import io.fabric8.kubernetes.api.model.apps.Deployment;
 import io.fabric8.kubernetes.client.dsl.Resource;
 import io.javaoperatorsdk.operator.api.reconciler.Context;
+import org.bf2.common.ApplyStrategy;
 import org.bf2.operator.managers.InformerManager;
 import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 import javax.inject.Inject;
 
 public abstract class AbstractAdminServer extends DeploymentOperand {
 
+    protected static final String OPERAND = "admin-server";
+
     @Inject
     Logger log;
 
     @Inject
     protected InformerManager informerManager;
 
+    @ConfigProperty(name = "adminserver.apply-strategy", defaultValue = "replace")
+    protected ApplyStrategy applyStrategy;
+
+    @Inject
+    protected OperandWrites writes;
+
     @Override
     public void createOrUpdate(ManagedKafka managedKafka) {
         Deployment currentDeployment = cachedDeployment(managedKafka);
         Deployment deployment = deploymentFrom(managedKafka, currentDeployment);
-        createOrUpdate(deployment);
+        if (writes.isWriteNeeded(OPERAND, currentDeployment, deployment)) {
+            writes.apply(OPERAND, applyStrategy, () -> createOrUpdate(deployment));
+        }
 
         Service currentService = cachedService(managedKafka);
         Service service = serviceFrom(managedKafka, currentService);
-        createOrUpdate(service);
+        if (writes.isWriteNeeded(OPERAND, currentService, service)) {
+            writes.apply(OPERAND, applyStrategy, () -> createOrUpdate(service));
+        }
+    }
+
+    @Override
+    protected ApplyStrategy applyStrategy() {
+        return applyStrategy;
     }
 
     @Override
@@ -5,8 +5,10 @@ import io.fabric8.kubernetes.api.model.apps.Deployment;
 import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.dsl.RollableScalableResource;
 import io.javaoperatorsdk.operator.api.reconciler.Context;
+import org.bf2.common.ApplyStrategy;
 import org.bf2.operator.managers.InformerManager;
 import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 import javax.inject.Inject;
@@ -15,23 +17,40 @@ import java.net.HttpURLConnection;
 
 public abstract class AbstractCanary extends DeploymentOperand {
 
+    protected static final String OPERAND = "canary";
+
     @Inject
     Logger log;
 
     @Inject
     protected InformerManager informerManager;
 
+    @ConfigProperty(name = "managedkafka.canary.apply-strategy", defaultValue = "replace")
+    ApplyStrategy applyStrategy;
+
+    @Inject
+    protected OperandWrites writes;
+
     public abstract Service serviceFrom(ManagedKafka managedKafka, Service current);
 
     @Override
     public void createOrUpdate(ManagedKafka managedKafka) {
         Deployment current = cachedDeployment(managedKafka);
         Deployment deployment = deploymentFrom(managedKafka, current);
-        createOrUpdate(deployment);
+        if (writes.isWriteNeeded(OPERAND, current, deployment)) {
+            writes.apply(OPERAND, applyStrategy, () -> createOrUpdate(deployment));
+        }
 
         Service currentService = cachedService(managedKafka);
         Service service = serviceFrom(managedKafka, currentService);
-        createOrUpdate(service);
+        if (writes.isWriteNeeded(OPERAND, currentService, service)) {
+            writes.apply(OPERAND, applyStrategy, () -> createOrUpdate(service));
+        }
+    }
+
+    @Override
+    protected ApplyStrategy applyStrategy() {
+        return applyStrategy;
     }
 
     @Override
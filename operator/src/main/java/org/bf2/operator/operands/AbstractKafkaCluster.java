@@ -29,6 +29,7 @@ import io.strimzi.api.kafka.model.listener.arraylistener.GenericKafkaListenerCon
 import io.strimzi.api.kafka.model.listener.arraylistener.KafkaListenerType;
 import io.strimzi.api.kafka.model.status.Condition;
 import io.strimzi.api.kafka.model.status.KafkaStatus;
+import org.bf2.common.ApplyStrategy;
 import org.bf2.common.OperandUtils;
 import org.bf2.operator.ManagedKafkaKeys.Annotations;
 import org.bf2.operator.clients.KafkaResourceClient;
@@ -40,6 +41,7 @@ import org.bf2.operator.resources.v1alpha1.ManagedKafka;
 import org.bf2.operator.resources.v1alpha1.ManagedKafkaAuthenticationOAuth;
 import org.bf2.operator.resources.v1alpha1.ManagedKafkaCondition.Reason;
 import org.bf2.operator.resources.v1alpha1.ManagedKafkaCondition.Status;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 import javax.inject.Inject;
@@ -58,6 +60,8 @@ import java.util.function.Supplier;
 
 public abstract class AbstractKafkaCluster implements Operand<ManagedKafka> {
 
+    protected static final String OPERAND = "kafka";
+
     public static final String EXTERNAL_LISTENER_NAME = "external";
 
     @Inject
@@ -81,6 +85,12 @@ public abstract class AbstractKafkaCluster implements Operand<ManagedKafka> {
     @Inject
     protected OperandOverrideManager overrideManager;
 
+    @ConfigProperty(name = "managedkafka.kafka.apply-strategy", defaultValue = "replace")
+    protected ApplyStrategy applyStrategy;
+
+    @Inject
+    protected OperandWrites writes;
+
     public static String kafkaClusterName(ManagedKafka managedKafka) {
         return managedKafka.getMetadata().getName();
     }
@@ -276,12 +286,18 @@ public abstract class AbstractKafkaCluster implements Operand<ManagedKafka> {
         editMetadata = moveAnnotation(managedKafka, Annotations.KAFKA_UPGRADE_END_TIMESTAMP, current, editMetadata);
 
         if (editMetadata != null) {
-            createOrUpdate(editMetadata.endMetadata().build());
+            Kafka moved = editMetadata.endMetadata().build();
+            if (writes.isWriteNeeded(OPERAND, current, moved)) {
+                // a copy of the current Kafka, so always replaced - applying it would take ownership of every field
+                writes.apply(OPERAND, ApplyStrategy.REPLACE, () -> kafkaResourceClient.createOrUpdate(moved, ApplyStrategy.REPLACE));
+            }
             return; // just move the annotations - don't do any further reasoning.  We'll wait for the kafka event.
         }
 
         Kafka kafka = kafkaFrom(managedKafka, current);
-        createOrUpdate(kafka);
+        if (writes.isWriteNeeded(OPERAND, current, kafka)) {
+            writes.apply(OPERAND, applyStrategy, () -> createOrUpdate(kafka));
+        }
 
         boolean reconciliationPaused = isReconciliationPaused(managedKafka);
 
@@ -312,7 +328,7 @@ public abstract class AbstractKafkaCluster implements Operand<ManagedKafka> {
     }
 
     protected void createOrUpdate(Kafka kafka) {
-        kafkaResourceClient.createOrUpdate(kafka);
+        kafkaResourceClient.createOrUpdate(kafka, applyStrategy);
     }
 
     protected void suspend(ManagedKafka managedKafka) {
@@ -124,7 +124,9 @@ public class AdminServer extends AbstractAdminServer {
                 ingressControllerManagerInstance.get().ensureBlueprintRouteMatching(route, "kafka-admin");
             }
 
-            OperandUtils.createOrUpdate(openShiftClient.routes(), route);
+            if (writes.isWriteNeeded(OPERAND, currentRoute, route)) {
+                writes.apply(OPERAND, applyStrategy, () -> OperandUtils.createOrUpdate(openShiftClient.routes(), route, applyStrategy));
+            }
         }
     }
 
@@ -142,7 +144,8 @@ public class AdminServer extends AbstractAdminServer {
     public Deployment deploymentFrom(ManagedKafka managedKafka, Deployment current) {
         String adminServerName = adminServerName(managedKafka);
 
-        DeploymentBuilder builder = current != null ? new DeploymentBuilder(current) : new DeploymentBuilder();
+        Deployment base = applyStrategy.desiredBase(current);
+        DeploymentBuilder builder = base != null ? new DeploymentBuilder(base) : new DeploymentBuilder();
 
         String strimzi = managedKafka.getSpec().getVersions().getStrimzi();
 
@@ -199,7 +202,8 @@ public class AdminServer extends AbstractAdminServer {
     public Service serviceFrom(ManagedKafka managedKafka, Service current) {
         String adminServerName = adminServerName(managedKafka);
 
-        ServiceBuilder builder = current != null ? new ServiceBuilder(current) : new ServiceBuilder();
+        Service base = applyStrategy.desiredBase(current);
+        ServiceBuilder builder = base != null ? new ServiceBuilder(base) : new ServiceBuilder();
 
         Service service = builder
                 .editOrNewMetadata()
@@ -225,7 +229,8 @@ public class AdminServer extends AbstractAdminServer {
     protected Route routeFrom(ManagedKafka managedKafka, Route current) {
         String adminServerName = adminServerName(managedKafka);
 
-        RouteBuilder builder = current != null ? new RouteBuilder(current) : new RouteBuilder();
+        Route base = applyStrategy.desiredBase(current);
+        RouteBuilder builder = base != null ? new RouteBuilder(base) : new RouteBuilder();
 
         final IntOrString targetPort;
         final TLSConfig tlsConfig;
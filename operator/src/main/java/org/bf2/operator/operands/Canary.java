@@ -93,7 +93,8 @@ public class Canary extends AbstractCanary {
     public Deployment deploymentFrom(ManagedKafka managedKafka, Deployment current) {
         String canaryName = canaryName(managedKafka);
 
-        DeploymentBuilder builder = current != null ? new DeploymentBuilder(current) : new DeploymentBuilder();
+        Deployment base = applyStrategy().desiredBase(current);
+        DeploymentBuilder builder = base != null ? new DeploymentBuilder(base) : new DeploymentBuilder();
 
         String strimzi = managedKafka.getSpec().getVersions().getStrimzi();
 
@@ -159,7 +160,8 @@ public class Canary extends AbstractCanary {
     public Service serviceFrom(ManagedKafka managedKafka, Service current) {
         String canaryName = canaryName(managedKafka);
 
-        ServiceBuilder builder = current != null ? new ServiceBuilder(current) : new ServiceBuilder();
+        Service base = applyStrategy().desiredBase(current);
+        ServiceBuilder builder = base != null ? new ServiceBuilder(base) : new ServiceBuilder();
 
         Service service = builder
                 .editOrNewMetadata()
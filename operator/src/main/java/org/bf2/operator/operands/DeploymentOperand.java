@@ -3,6 +3,7 @@ package org.bf2.operator.operands;
 import io.fabric8.kubernetes.api.model.Service;
 import io.fabric8.kubernetes.api.model.apps.Deployment;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import org.bf2.common.ApplyStrategy;
 import org.bf2.common.OperandUtils;
 import org.bf2.operator.resources.v1alpha1.ManagedKafka;
 
@@ -22,12 +23,17 @@ public abstract class DeploymentOperand implements Operand<ManagedKafka> {
 
     public abstract Deployment deploymentFrom(ManagedKafka managedKafka, Deployment current);
 
+    /**
+     * How the resources of this operand are written
+     */
+    protected abstract ApplyStrategy applyStrategy();
+
     protected void createOrUpdate(Deployment deployment) {
-        OperandUtils.createOrUpdate(kubernetesClient.apps().deployments(), deployment);
+        OperandUtils.createOrUpdate(kubernetesClient.apps().deployments(), deployment, applyStrategy());
     }
 
     protected void createOrUpdate(Service service) {
-        OperandUtils.createOrUpdate(kubernetesClient.services(), service);
+        OperandUtils.createOrUpdate(kubernetesClient.services(), service, applyStrategy());
     }
 
     protected boolean handleReserveOrWaitForKafka(ManagedKafka managedKafka) {
@@ -277,7 +277,8 @@ public class KafkaCluster extends AbstractKafkaCluster {
     /* test */
     @Override
     public Kafka kafkaFrom(ManagedKafka managedKafka, Kafka current) {
-        KafkaBuilder builder = current != null ? new KafkaBuilder(current) : new KafkaBuilder();
+        Kafka base = applyStrategy.desiredBase(current);
+        KafkaBuilder builder = base != null ? new KafkaBuilder(base) : new KafkaBuilder();
 
         int actualReplicas = getBrokerReplicas(managedKafka, current);
         int desiredReplicas = getBrokerReplicas(managedKafka, null);
@@ -1015,7 +1016,7 @@ public class KafkaCluster extends AbstractKafkaCluster {
     @Override
     public Quantity calculateRetentionSize(ManagedKafka managedKafka) {
         Kafka current = cachedKafka(managedKafka);
-        long storageInGbs = informerManager.getPvcsInNamespace(managedKafka.getMetadata().getNamespace()).stream().map(pvc -> {
+        long storageInGbs = informerManager.getPvcsForKafka(kafkaClusterNamespace(managedKafka), kafkaClusterName(managedKafka)).stream().map(pvc -> {
             if (pvc.getStatus() == null) {
                 return 0L;
             }
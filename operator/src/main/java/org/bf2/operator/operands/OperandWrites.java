@@ -0,0 +1,187 @@
+package org.bf2.operator.operands;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bf2.common.ApplyStrategy;
+import org.bf2.common.OperandUtils;
+import org.bf2.operator.ManagedKafkaKeys.Annotations;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides if an operand resource needs to be written, so that reconciles that change nothing
+ * don't produce API writes, new resourceVersions, and further events.
+ * <br>
+ * The digest of the desired state is recorded as the {@link Annotations#DESIRED_STATE_DIGEST}
+ * annotation.  The write is skipped when the new desired digest matches the annotation of the
+ * cached resource, and the cached resource still has every value that the desired state sets - so
+ * that changes made by others to those fields are still reverted, while fields defaulted or added
+ * by the server are ignored.
+ * <br>
+ * Metrics are tagged by the operand name given to each call.
+ */
+@ApplicationScoped
+public class OperandWrites {
+
+    private static final String NAME = "operand.writes";
+    private static final String APPLY_NAME = "operand.apply";
+    private static final String REQUESTS_NAME = "operand.requests";
+    private static final ObjectMapper MAPPER = Serialization.jsonMapper()
+            .copy()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> applyTimers = new ConcurrentHashMap<>();
+
+    private Counter counter(String operand, String result) {
+        return counters.computeIfAbsent(operand + "/" + result, k -> Counter.builder(NAME)
+                .description("The number of operand resource writes skipped as the desired state was unchanged, or performed")
+                .tag("operand", operand)
+                .tag("result", result)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Return true if the desired resource should be written, in which case it has been
+     * annotated with its digest.
+     */
+    public <T extends HasMetadata> boolean isWriteNeeded(String operand, T current, T desired) {
+        JsonNode desiredTree = withoutServerFields(desired);
+        String digest = digest(desiredTree);
+        if (current != null
+                && digest.equals(OperandUtils.getAnnotation(current, Annotations.DESIRED_STATE_DIGEST).orElse(null))
+                && contains(MAPPER.valueToTree(current), desiredTree)) {
+            counter(operand, "skipped").increment();
+            return false;
+        }
+        // copied so that a map shared with the cached resource is not modified
+        Map<String, String> annotations = new LinkedHashMap<>(Objects.requireNonNullElse(desired.getMetadata().getAnnotations(), Map.of()));
+        annotations.put(Annotations.DESIRED_STATE_DIGEST, digest);
+        desired.getMetadata().setAnnotations(annotations);
+        counter(operand, "performed").increment();
+        return true;
+    }
+
+    /**
+     * Perform a write, timed by the strategy used so that the strategies can be compared.  The requests
+     * made by {@link OperandUtils#createOrUpdate} are counted by strategy and request - relative to the
+     * count of the timer that gives the requests per write.
+     */
+    public void apply(String operand, ApplyStrategy strategy, Runnable write) {
+        String strategyTag = strategy.name().toLowerCase(Locale.ROOT);
+        applyTimers.computeIfAbsent(operand + "/" + strategy, k -> Timer.builder(APPLY_NAME)
+                .description("The time taken to write operand resources, by apply strategy")
+                .tag("operand", operand)
+                .tag("strategy", strategyTag)
+                .register(meterRegistry))
+            .record(() -> OperandUtils.countRequests(request -> counters.computeIfAbsent(
+                    operand + "/" + strategyTag + "/" + request, k -> Counter.builder(REQUESTS_NAME)
+                            .description("The number of API requests made to write operand resources, by apply strategy and request")
+                            .tag("operand", operand)
+                            .tag("strategy", strategyTag)
+                            .tag("request", request)
+                            .register(meterRegistry))
+                    .increment(), write));
+    }
+
+    /**
+     * A stable digest of the resource, excluding its status, the metadata set by the server, and the
+     * digest annotation
+     */
+    static String digest(HasMetadata resource) {
+        return digest(withoutServerFields(resource));
+    }
+
+    private static String digest(JsonNode tree) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            return String.format("%040x", new BigInteger(1, digest.digest(MAPPER.writeValueAsBytes(tree))));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Return true if every value set by the expected tree is the same in the actual tree.  Null values and
+     * empty objects or arrays in the expected tree are treated as unset, and array elements are
+     * compared pairwise, as the server may default fields within them.
+     */
+    static boolean contains(JsonNode actual, JsonNode expected) {
+        if (isUnset(expected)) {
+            return true;
+        }
+        if (actual == null) {
+            return false;
+        }
+        if (expected.isObject()) {
+            if (!actual.isObject()) {
+                return false;
+            }
+            for (Iterator<Map.Entry<String, JsonNode>> fields = expected.fields(); fields.hasNext();) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (!contains(actual.get(field.getKey()), field.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (expected.isArray()) {
+            if (!actual.isArray() || actual.size() != expected.size()) {
+                return false;
+            }
+            for (int i = 0; i < expected.size(); i++) {
+                if (!contains(actual.get(i), expected.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return expected.equals(actual);
+    }
+
+    private static boolean isUnset(JsonNode node) {
+        return node == null || node.isNull() || (node.isContainerNode() && node.isEmpty());
+    }
+
+    private static JsonNode withoutServerFields(HasMetadata resource) {
+        JsonNode tree = MAPPER.valueToTree(resource);
+        if (tree instanceof ObjectNode) {
+            ((ObjectNode) tree).remove("status");
+        }
+        JsonNode metadata = tree.get("metadata");
+        if (metadata instanceof ObjectNode) {
+            ((ObjectNode) metadata).remove(OperandUtils.SERVER_METADATA);
+            JsonNode annotations = metadata.get("annotations");
+            if (annotations instanceof ObjectNode) {
+                ((ObjectNode) annotations).remove(Annotations.DESIRED_STATE_DIGEST);
+                if (annotations.isEmpty()) {
+                    ((ObjectNode) metadata).remove("annotations");
+                }
+            }
+        }
+        return tree;
+    }
+
+}
@@ -2,20 +2,30 @@ package org.bf2.operator.events;
 
 import io.fabric8.kubernetes.api.model.ConfigMap;
 import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.ManagedFieldsEntryBuilder;
+import io.fabric8.kubernetes.client.utils.Serialization;
 import io.javaoperatorsdk.operator.processing.event.Event;
 import io.javaoperatorsdk.operator.processing.event.EventHandler;
 import io.javaoperatorsdk.operator.processing.event.ResourceID;
 import io.javaoperatorsdk.operator.processing.event.source.controller.ResourceAction;
 import io.javaoperatorsdk.operator.processing.event.source.controller.ResourceEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.quarkus.test.junit.QuarkusTest;
 import org.bf2.common.OperandUtils;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import javax.inject.Inject;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @QuarkusTest
 class ResourceEventSourceTest {
@@ -63,4 +73,85 @@ class ResourceEventSourceTest {
         assertEquals(ResourceAction.UPDATED, event.getAction()); // parent is updated, not deleted
     }
 
+    @Test void testHandleOwnerEvent() {
+        EventHandler mockEventHandler = Mockito.mock(EventHandler.class);
+        resourceEventSource.setEventHandler(mockEventHandler);
+
+        ConfigMap parent = new ConfigMapBuilder().withNewMetadata().withName("parent").withUid("uid").endMetadata().build();
+        ConfigMap child = new ConfigMapBuilder().withNewMetadata().withName("child").withNamespace("ns").endMetadata().build();
+        OperandUtils.setAsOwner(parent, child);
+
+        resourceEventSource.handleOwnerEvent(child);
+
+        ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
+        Mockito.verify(mockEventHandler).handleEvent(eventCaptor.capture());
+        assertEquals(new ResourceID("parent", "ns"), eventCaptor.getValue().getRelatedCustomResourceID());
+    }
+
+    @Test void testVersionOnlyChangeDropped() {
+        EventHandler mockEventHandler = Mockito.mock(EventHandler.class);
+        resourceEventSource.setEventHandler(mockEventHandler);
+
+        ConfigMap parent = new ConfigMapBuilder().withNewMetadata().withName("parent").withUid("uid").endMetadata().build();
+        ConfigMap old = new ConfigMapBuilder().withNewMetadata().withName("old").withNamespace("ns").withResourceVersion("1").endMetadata().build();
+        OperandUtils.setAsOwner(parent, old);
+        ConfigMap bumped = new ConfigMapBuilder(old).editMetadata().withResourceVersion("2").endMetadata().build();
+        ConfigMap changed = new ConfigMapBuilder(bumped).addToData("key", "value").build();
+
+        assertTrue(ResourceEventSource.isVersionOnlyChange(old, bumped));
+        assertFalse(ResourceEventSource.isVersionOnlyChange(old, changed));
+
+        resourceEventSource.onUpdate(old, bumped);
+        Mockito.verifyNoInteractions(mockEventHandler);
+
+        resourceEventSource.onUpdate(bumped, changed);
+        Mockito.verify(mockEventHandler).handleEvent(Mockito.any());
+    }
+
+    @Test void testVersionOnlyChangeCustomResource() {
+        ManagedKafka old = ManagedKafka.getDummyInstance(1);
+        old.getMetadata().setResourceVersion("1");
+
+        ManagedKafka bumped = Serialization.unmarshal(Serialization.asJson(old), ManagedKafka.class);
+        bumped.getMetadata().setResourceVersion("2");
+        bumped.getMetadata().setManagedFields(List.of(new ManagedFieldsEntryBuilder().withManager("test").build()));
+        assertTrue(ResourceEventSource.isVersionOnlyChange(old, bumped));
+
+        ManagedKafka labeled = Serialization.unmarshal(Serialization.asJson(bumped), ManagedKafka.class);
+        labeled.getMetadata().setLabels(Map.of("key", "value"));
+        assertFalse(ResourceEventSource.isVersionOnlyChange(bumped, labeled));
+
+        ManagedKafka deleted = Serialization.unmarshal(Serialization.asJson(bumped), ManagedKafka.class);
+        deleted.getSpec().setDeleted(true);
+        assertFalse(ResourceEventSource.isVersionOnlyChange(bumped, deleted));
+    }
+
+    @Test void testDebounce() throws InterruptedException {
+        ResourceEventSource source = new ResourceEventSource();
+        source.meterRegistry = new SimpleMeterRegistry();
+        source.quietPeriod = Duration.ofMillis(100);
+        source.maxDelay = Duration.ofSeconds(10);
+        source.init();
+        try {
+            EventHandler mockEventHandler = Mockito.mock(EventHandler.class);
+            source.setEventHandler(mockEventHandler);
+
+            ConfigMap parent = new ConfigMapBuilder().withNewMetadata().withName("parent").withUid("uid").endMetadata().build();
+            for (int i = 0; i < 5; i++) {
+                ConfigMap child = new ConfigMapBuilder().withNewMetadata().withName("child" + i).withNamespace("ns").endMetadata().build();
+                OperandUtils.setAsOwner(parent, child);
+                source.onAdd(child);
+            }
+
+            // coalesced into a single owner event
+            ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
+            Mockito.verify(mockEventHandler, Mockito.timeout(5000)).handleEvent(eventCaptor.capture());
+            assertEquals(new ResourceID("parent", "ns"), eventCaptor.getValue().getRelatedCustomResourceID());
+            Thread.sleep(200);
+            Mockito.verifyNoMoreInteractions(mockEventHandler);
+        } finally {
+            source.shutdown();
+        }
+    }
+
 }
@@ -19,13 +19,16 @@ import org.junit.jupiter.api.Test;
 
 import javax.inject.Inject;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @QuarkusTestResource(KubernetesServerTestResource.class)
@@ -47,6 +50,7 @@ public class ImagePullSecretManagerTest {
                 .withName(OperandUtils.FLEETSHARD_OPERATOR_NAME)
                 .delete();
         client.secrets().inNamespace(client.getNamespace()).delete();
+        client.resources(ManagedKafka.class).inAnyNamespace().delete();
         imagePullSecretManager.initialize();
     }
 
@@ -57,7 +61,6 @@ public class ImagePullSecretManagerTest {
         assertTrue(imagePullSecretManager.getOperatorImagePullSecrets(mk).isEmpty());
 
         // these will just be no-ops
-        imagePullSecretManager.checkSecret();
         imagePullSecretManager.propagateSecrets(mk);
         imagePullSecretManager.deleteSecrets(mk);
     }
@@ -94,7 +97,6 @@ public class ImagePullSecretManagerTest {
         // no-ops - the secrets aren't yet retrieved
         imagePullSecretManager.propagateSecrets(managedKafka);
         imagePullSecretManager.deleteSecrets(managedKafka);
-        imagePullSecretManager.checkSecret();
 
         client.secrets()
                 .inNamespace(client.getNamespace())
@@ -103,25 +105,59 @@ public class ImagePullSecretManagerTest {
                 .inNamespace(client.getNamespace())
                 .create(new SecretBuilder().withNewMetadata().withName("other").endMetadata().build());
 
-        // should succeed, but there's no ManagedKafkas so nothing happens
-        imagePullSecretManager.checkSecret();
+        // the watches pick up the secrets, there's no ManagedKafkas so nothing is propagated until asked
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+            imagePullSecretManager.propagateSecrets(managedKafka);
+
+            assertEquals(Set.of("mk-pull-name", "mk-pull-other"),
+                    client.secrets()
+                            .inNamespace("testWithSecrets")
+                            .list()
+                            .getItems()
+                            .stream()
+                            .map(s -> s.getMetadata().getName())
+                            .collect(Collectors.toSet()));
+        });
+    }
 
-        assertTrue(client.secrets()
-                .inNamespace("testWithSecrets")
-                .list()
-                .getItems()
-                .isEmpty());
+    @Test
+    void testSecretChangedPropagates() {
+        String ns = "testSecretChangedPropagates";
+        ManagedKafka managedKafka = ManagedKafka.getDummyInstance(1);
+        managedKafka.getMetadata().setName("mk");
+        managedKafka.getMetadata().setNamespace(ns);
+        client.resources(ManagedKafka.class).inNamespace(ns).create(managedKafka);
+
+        Secret secret = new SecretBuilder()
+                .withNewMetadata()
+                    .withName("name")
+                    .withUid("1")
+                    .withResourceVersion("1")
+                .endMetadata()
+                .withData(Map.of("key", "value1"))
+                .build();
 
-        imagePullSecretManager.propagateSecrets(managedKafka);
+        // first seen, so propagated to existing ManagedKafkas
+        imagePullSecretManager.secretChanged("name", secret);
+        assertEquals("value1", client.secrets().inNamespace(ns).withName("mk-pull-name").get().getData().get("key"));
 
-        assertEquals(Set.of("mk-pull-name", "mk-pull-other"),
-                client.secrets()
-                        .inNamespace("testWithSecrets")
-                        .list()
-                        .getItems()
-                        .stream()
-                        .map(s -> s.getMetadata().getName())
-                        .collect(Collectors.toSet()));
+        // the same resourceVersion is not propagated again
+        client.secrets().inNamespace(ns).withName("mk-pull-name").delete();
+        imagePullSecretManager.secretChanged("name", secret);
+        assertNull(client.secrets().inNamespace(ns).withName("mk-pull-name").get());
+
+        Secret modified = new SecretBuilder(secret)
+                .editMetadata().withResourceVersion("2").endMetadata()
+                .withData(Map.of("key", "value2"))
+                .build();
+        imagePullSecretManager.secretChanged("name", modified);
+        assertEquals("value2", client.secrets().inNamespace(ns).withName("mk-pull-name").get().getData().get("key"));
+
+        // once deleted it is no longer propagated to new ManagedKafkas
+        imagePullSecretManager.secretChanged("name", null);
+        client.secrets().inNamespace(ns).withName("mk-pull-name").delete();
+        imagePullSecretManager.propagateSecrets(managedKafka);
+        assertNull(client.secrets().inNamespace(ns).withName("mk-pull-name").get());
     }
 
     @Test
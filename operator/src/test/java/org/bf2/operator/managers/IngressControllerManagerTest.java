@@ -2,6 +2,7 @@ package org.bf2.operator.managers;
 
 import io.fabric8.kubernetes.api.model.Node;
 import io.fabric8.kubernetes.api.model.NodeBuilder;
+import io.fabric8.kubernetes.api.model.OwnerReferenceBuilder;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.PodBuilder;
 import io.fabric8.kubernetes.api.model.Quantity;
@@ -24,6 +25,7 @@ import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.kubernetes.client.KubernetesServerTestResource;
 import io.quarkus.test.kubernetes.client.KubernetesTestServer;
 import io.strimzi.api.kafka.model.Kafka;
+import io.strimzi.api.kafka.model.KafkaBuilder;
 import org.bf2.common.ManagedKafkaAgentResourceClient;
 import org.bf2.common.OperandUtils;
 import org.bf2.operator.operands.AbstractKafkaCluster;
@@ -44,6 +46,7 @@ import org.mockito.Mockito;
 
 import javax.inject.Inject;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -55,6 +58,7 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -369,11 +373,23 @@ class IngressControllerManagerTest {
                         .build())
                 .build();
 
+        final String kafkaUid = "kafka-uid";
+        openShiftClient.resource(new KafkaBuilder()
+                .withNewMetadata()
+                .withName(AbstractKafkaCluster.kafkaClusterName(mk))
+                .withNamespace(AbstractKafkaCluster.kafkaClusterNamespace(mk))
+                .withUid(kafkaUid)
+                .withLabels(OperandUtils.getDefaultLabels())
+                .endMetadata()
+                .build()).createOrReplace();
+        informerManager.createKafkaInformer();
+
         final Function<? super String, ? extends Route> makeRoute = broker -> new RouteBuilder()
                 .editOrNewMetadata()
                 .withName(mkName + "-" + broker.replace("broker", "kafka"))
                 .withNamespace(mkName)
-                .addNewOwnerReference().withApiVersion(Kafka.V1BETA2).withKind(Kafka.RESOURCE_KIND).withName(AbstractKafkaCluster.kafkaClusterName(mk)).endOwnerReference()
+                .withLabels(Map.of(OperandUtils.MANAGED_BY_LABEL, OperandUtils.STRIMZI_OPERATOR_NAME))
+                .addNewOwnerReference().withApiVersion(Kafka.V1BETA2).withKind(Kafka.RESOURCE_KIND).withName(AbstractKafkaCluster.kafkaClusterName(mk)).withUid(kafkaUid).endOwnerReference()
                 .endMetadata()
                 .editOrNewSpec()
                 .withHost(broker + "-bs.bf2.example.tld")
@@ -417,10 +433,20 @@ class IngressControllerManagerTest {
         List<String> suffixes = List.of("broker-0", "broker-1", "broker-2");
 
         suffixes.stream().map(makeRoute).forEach(route -> openShiftClient.routes().inNamespace(mkName).createOrReplace(route));
+        // a broker route in the same namespace owned by some other Kafka
+        openShiftClient.routes().inNamespace(mkName).createOrReplace(new RouteBuilder(makeRoute.apply("broker-3"))
+                .editMetadata()
+                .withOwnerReferences(new OwnerReferenceBuilder().withKind(Kafka.RESOURCE_KIND).withName("other").withUid("other-uid").build())
+                .endMetadata()
+                .build());
         suffixes.stream().map(suffixToService).forEach(svc -> openShiftClient.services().inNamespace(mkName).createOrReplace(svc));
         suffixes.stream().map(suffixToPod).forEach(pod -> openShiftClient.pods().inNamespace(mkName).createOrReplace(pod));
         suffixes.stream().map(suffixToNode).forEach(node -> openShiftClient.nodes().createOrReplace(node));
 
+        await().atMost(Duration.ofSeconds(10)).until(() -> informerManager.getLocalKafka(mkName, AbstractKafkaCluster.kafkaClusterName(mk)) != null
+                && informerManager.getRoutesOwnedBy(kafkaUid).size() == 3
+                && informerManager.getRoutesOwnedBy("other-uid").size() == 1);
+
         ingressControllerManager.reconcileIngressControllers();
         List<ManagedKafkaRoute> managedKafkaRoutes = ingressControllerManager.getManagedKafkaRoutesFor(mk);
 
@@ -0,0 +1,161 @@
+package org.bf2.operator.operands;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.kubernetes.client.KubernetesServerTestResource;
+import io.quarkus.test.kubernetes.client.KubernetesTestServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.bf2.common.ApplyStrategy;
+import org.bf2.common.OperandUtils;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTestResource(KubernetesServerTestResource.class)
+@QuarkusTest
+class ApplyStrategyTest {
+
+    @Inject
+    KubernetesClient client;
+
+    @KubernetesTestServer
+    KubernetesServer server;
+
+    @Test
+    void testConfigValues() {
+        assertEquals(ApplyStrategy.SERVER_SIDE_APPLY,
+                ConfigProvider.getConfig().getConverter(ApplyStrategy.class).orElseThrow().convert("server-side-apply"));
+        assertEquals(ApplyStrategy.REPLACE,
+                ConfigProvider.getConfig().getConverter(ApplyStrategy.class).orElseThrow().convert("replace"));
+    }
+
+    @Test
+    void testServerSideApplyRequest() throws InterruptedException {
+        ConfigMap configMap = configMap("ssa");
+        configMap.getMetadata().setUid("uid");
+        configMap.getMetadata().setResourceVersion("1");
+
+        List<String> requests = new ArrayList<>();
+        OperandUtils.countRequests(requests::add, () -> {
+            try {
+                OperandUtils.createOrUpdate(client.configMaps(), configMap, ApplyStrategy.SERVER_SIDE_APPLY);
+            } catch (KubernetesClientException e) {
+                // only the request is of interest, the mock server need not support server side apply
+            }
+        });
+        assertEquals(List.of(OperandUtils.REQUEST_APPLY), requests);
+
+        RecordedRequest request = takeRequest("PATCH", "/api/v1/namespaces/test/configmaps/ssa");
+        assertEquals("application/apply-patch+yaml", request.getHeader("Content-Type").split(";")[0]);
+        assertEquals(OperandUtils.FIELD_MANAGER, request.getRequestUrl().queryParameter("fieldManager"));
+        assertEquals("true", request.getRequestUrl().queryParameter("force"));
+
+        String body = request.getBody().readUtf8();
+        assertTrue(body.contains("ssa"));
+        assertFalse(body.contains("uid"));
+        assertFalse(body.contains("resourceVersion"));
+    }
+
+    @Test
+    void testReplaceRequests() {
+        client.configMaps().inNamespace("test").withName("replace").delete();
+
+        // not found, so the locked replace falls back to createOrReplace
+        List<String> requests = new ArrayList<>();
+        OperandUtils.countRequests(requests::add,
+                () -> OperandUtils.createOrUpdate(client.configMaps(), configMap("replace"), ApplyStrategy.REPLACE));
+        assertEquals(List.of(OperandUtils.REQUEST_REPLACE, OperandUtils.REQUEST_CREATE_OR_REPLACE), requests);
+
+        ConfigMap current = client.configMaps().inNamespace("test").withName("replace").get();
+        requests.clear();
+        OperandUtils.countRequests(requests::add,
+                () -> OperandUtils.createOrUpdate(client.configMaps(), current, ApplyStrategy.REPLACE));
+        assertEquals(List.of(OperandUtils.REQUEST_REPLACE), requests);
+    }
+
+    @Test
+    void testServerSideApplyLeavesForeignFields() throws InterruptedException {
+        ManagedKafka managedKafka = AdminServerTest.buildBasicManagedKafka("ssa-foreign", "strimzi-cluster-operator.v0.23.0-0", null);
+        // the service needs none of the injected fields
+        AdminServer instance = new AdminServer();
+
+        // a service with fields set by the server and another manager
+        Service current = new ServiceBuilder(instance.serviceFrom(managedKafka, null))
+                .editMetadata()
+                    .withUid("uid")
+                    .addToAnnotations("injected.example.com/by", "webhook")
+                    .addNewManagedField()
+                        .withManager("other-manager")
+                        .withOperation("Update")
+                    .endManagedField()
+                .endMetadata()
+                .editSpec()
+                    .withClusterIP("10.0.0.1")
+                    .withSessionAffinity("ClientIP")
+                .endSpec()
+                .build();
+
+        instance.applyStrategy = ApplyStrategy.REPLACE;
+        Service replaced = instance.serviceFrom(managedKafka, current);
+        assertEquals("ClientIP", replaced.getSpec().getSessionAffinity());
+
+        instance.applyStrategy = ApplyStrategy.SERVER_SIDE_APPLY;
+        Service applied = instance.serviceFrom(managedKafka, current);
+        assertNull(applied.getSpec().getSessionAffinity());
+        assertFalse(applied.getMetadata().getAnnotations() != null
+                && applied.getMetadata().getAnnotations().containsKey("injected.example.com/by"));
+
+        try {
+            OperandUtils.createOrUpdate(client.services(), applied, ApplyStrategy.SERVER_SIDE_APPLY);
+        } catch (KubernetesClientException e) {
+            // only the request is of interest, the mock server need not support server side apply
+        }
+
+        String body = takeRequest("PATCH", "/api/v1/namespaces/test/services/" + AbstractAdminServer.adminServerName(managedKafka))
+                .getBody().readUtf8();
+        assertFalse(body.contains("ClientIP"));
+        assertFalse(body.contains("webhook"));
+        assertFalse(body.contains("other-manager"));
+        assertFalse(body.contains("10.0.0.1"));
+    }
+
+    private RecordedRequest takeRequest(String method, String path) throws InterruptedException {
+        // informers share the mock server, so skip over their requests
+        RecordedRequest request;
+        do {
+            request = server.getMockServer().takeRequest(5, TimeUnit.SECONDS);
+            assertNotNull(request, "no " + method + " " + path + " request");
+        } while (!method.equals(request.getMethod()) || !request.getPath().startsWith(path));
+        return request;
+    }
+
+    private static ConfigMap configMap(String name) {
+        return new ConfigMapBuilder()
+                .withNewMetadata()
+                    .withName(name)
+                    .withNamespace("test")
+                .endMetadata()
+                .addToData("key", "value")
+                .build();
+    }
+
+}
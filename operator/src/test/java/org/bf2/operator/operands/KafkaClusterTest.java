@@ -639,13 +639,13 @@ class KafkaClusterTest {
         InformerManager informerManager = Mockito.mock(InformerManager.class);
 
         QuarkusMock.installMockForType(informerManager, InformerManager.class);
-        Mockito.when(informerManager.getPvcsInNamespace(Mockito.anyString())).thenReturn(List.of());
+        Mockito.when(informerManager.getPvcsForKafka(Mockito.anyString(), Mockito.anyString())).thenReturn(List.of());
 
         // there's no pvcs, should be 0
         assertEquals("0", kafkaCluster.calculateRetentionSize(mk).getAmount());
 
         PersistentVolumeClaim pvc = new PersistentVolumeClaimBuilder().withNewStatus().addToCapacity("storage", Quantity.parse("361Gi")).endStatus().build();
-        Mockito.when(informerManager.getPvcsInNamespace(Mockito.anyString())).thenReturn(List.of(pvc, pvc, pvc));
+        Mockito.when(informerManager.getPvcsForKafka(Mockito.anyString(), Mockito.anyString())).thenReturn(List.of(pvc, pvc, pvc));
 
         // should be the sum in Gi, less the padding
         assertEquals("1000", kafkaCluster.calculateRetentionSize(mk).getAmount());
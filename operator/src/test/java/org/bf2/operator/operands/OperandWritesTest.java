@@ -0,0 +1,155 @@
+package org.bf2.operator.operands;
+
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bf2.operator.ManagedKafkaKeys.Annotations;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OperandWritesTest {
+
+    @Test
+    void testUnchangedWriteSkipped() {
+        OperandWrites writes = writes();
+
+        Service desired = service("ClusterIP");
+        assertTrue(writes.isWriteNeeded("test", null, desired));
+        String digest = desired.getMetadata().getAnnotations().get(Annotations.DESIRED_STATE_DIGEST);
+        assertNotNull(digest);
+
+        // as written by the server
+        Service current = new ServiceBuilder(desired)
+                .editMetadata()
+                .withResourceVersion("2")
+                .withUid("uid")
+                .endMetadata()
+                .withNewStatus()
+                .endStatus()
+                .build();
+
+        assertFalse(writes.isWriteNeeded("test", current, new ServiceBuilder(current).build()));
+        assertTrue(writes.isWriteNeeded("test", current, new ServiceBuilder(current).editSpec().withType("NodePort").endSpec().build()));
+    }
+
+    @Test
+    void testModifiedCurrentWritten() {
+        OperandWrites writes = writes();
+
+        Service desired = service("ClusterIP");
+        writes.isWriteNeeded("test", null, desired);
+
+        // modified by something else, while still carrying the digest
+        Service current = new ServiceBuilder(desired).editSpec().withType("NodePort").endSpec().build();
+
+        Service reverted = new ServiceBuilder(current).editSpec().withType("ClusterIP").endSpec().build();
+        assertTrue(writes.isWriteNeeded("test", current, reverted));
+        assertEquals(desired.getMetadata().getAnnotations(), reverted.getMetadata().getAnnotations());
+    }
+
+    @Test
+    void testServerDefaultsIgnored() {
+        OperandWrites writes = writes();
+
+        Deployment desired = deployment(1);
+        assertTrue(writes.isWriteNeeded("test", null, desired));
+
+        // as returned by the server, with defaults and server managed fields filled in
+        Deployment current = new DeploymentBuilder(desired)
+                .editMetadata()
+                    .withResourceVersion("2")
+                    .withUid("uid")
+                    .withGeneration(1L)
+                    .addToAnnotations("deployment.kubernetes.io/revision", "1")
+                .endMetadata()
+                .editSpec()
+                    .withRevisionHistoryLimit(10)
+                    .editTemplate()
+                        .editSpec()
+                            .withRestartPolicy("Always")
+                            .editFirstContainer()
+                                .withImagePullPolicy("IfNotPresent")
+                                .withTerminationMessagePath("/dev/termination-log")
+                            .endContainer()
+                        .endSpec()
+                    .endTemplate()
+                .endSpec()
+                .withNewStatus()
+                    .withReplicas(1)
+                .endStatus()
+                .build();
+
+        assertFalse(writes.isWriteNeeded("test", current, deployment(1)));
+        assertEquals(1, writes.meterRegistry.get("operand.writes").tag("result", "skipped").counter().count());
+
+        // a field the operand sets was changed by something else
+        Deployment scaled = new DeploymentBuilder(current).editSpec().withReplicas(0).endSpec().build();
+        assertTrue(writes.isWriteNeeded("test", scaled, deployment(1)));
+
+        // and the desired state changed
+        assertTrue(writes.isWriteNeeded("test", current, deployment(2)));
+    }
+
+    @Test
+    void testServiceClusterIpIgnored() {
+        OperandWrites writes = writes();
+
+        Service desired = service("ClusterIP");
+        writes.isWriteNeeded("test", null, desired);
+
+        Service current = new ServiceBuilder(desired)
+                .editSpec()
+                .withClusterIP("10.0.0.1")
+                .withClusterIPs("10.0.0.1")
+                .withSessionAffinity("None")
+                .endSpec()
+                .build();
+
+        assertFalse(writes.isWriteNeeded("test", current, service("ClusterIP")));
+    }
+
+    static OperandWrites writes() {
+        OperandWrites writes = new OperandWrites();
+        writes.meterRegistry = new SimpleMeterRegistry();
+        return writes;
+    }
+
+    private static Deployment deployment(int replicas) {
+        return new DeploymentBuilder()
+                .withNewMetadata()
+                    .withName("deployment")
+                    .withNamespace("namespace")
+                .endMetadata()
+                .withNewSpec()
+                    .withReplicas(replicas)
+                    .withNewTemplate()
+                        .withNewSpec()
+                            .addNewContainer()
+                                .withName("container")
+                                .withImage("image")
+                            .endContainer()
+                        .endSpec()
+                    .endTemplate()
+                .endSpec()
+                .build();
+    }
+
+    private static Service service(String type) {
+        return new ServiceBuilder()
+                .withNewMetadata()
+                .withName("service")
+                .withNamespace("namespace")
+                .endMetadata()
+                .withNewSpec()
+                .withType(type)
+                .endSpec()
+                .build();
+    }
+
+}
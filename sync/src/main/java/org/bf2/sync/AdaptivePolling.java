@@ -0,0 +1,128 @@
+package org.bf2.sync;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the {@link Interval}s used to decide when each control plane resource is polled.
+ * <br>
+ * The scheduled poll methods run every poll.tick, but only poll when their interval is due.
+ * With adaptive polling disabled the interval is always poll.interval.  Otherwise it is
+ * the min-interval while changes are being observed or work is pending, and doubles up to
+ * the max-interval while things are quiet.
+ */
+@ApplicationScoped
+public class AdaptivePolling {
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "poll.interval")
+    Duration fixedInterval;
+
+    @ConfigProperty(name = "poll.adaptive.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "poll.adaptive.min-interval", defaultValue = "2s")
+    Duration minInterval;
+
+    @ConfigProperty(name = "poll.adaptive.max-interval", defaultValue = "2m")
+    Duration maxInterval;
+
+    public Interval forResource(String resource) {
+        Interval interval = new Interval(enabled, fixedInterval, minInterval, maxInterval, meterRegistry, Tags.of("resource", resource));
+        meterRegistry.gauge("sync.poll.interval", Tags.of("resource", resource), interval, i -> i.getIntervalNanos() / 1e9);
+        return interval;
+    }
+
+    public static class Interval {
+
+        private final boolean adaptive;
+        private final long fixedNanos;
+        private final long minNanos;
+        private final long maxNanos;
+        private final Counter changes;
+        private final Timer lag;
+
+        private volatile long intervalNanos;
+        private volatile boolean polled;
+        private volatile long lastPollNanos;
+        private volatile long nextPollNanos;
+
+        Interval(boolean adaptive, Duration fixed, Duration min, Duration max, MeterRegistry meterRegistry, Tags tags) {
+            this.adaptive = adaptive;
+            this.fixedNanos = fixed.toNanos();
+            this.minNanos = min.toNanos();
+            this.maxNanos = Math.max(minNanos, max.toNanos());
+            this.intervalNanos = adaptive ? minNanos : fixedNanos;
+            this.changes = Counter.builder("sync.poll.changes")
+                    .tags(tags)
+                    .description("The number of changes observed by polling")
+                    .register(meterRegistry);
+            this.lag = Timer.builder("sync.poll.lag")
+                    .tags(tags)
+                    .description("The upper bound of the time from a control plane change to its local application")
+                    .register(meterRegistry);
+        }
+
+        public boolean isDue() {
+            return !polled || System.nanoTime() - nextPollNanos >= 0;
+        }
+
+        /**
+         * Mark the start of a poll
+         * @return the start of the previous poll - changes seen by this poll happened after that time
+         */
+        public long pollStarted() {
+            long previous = polled ? lastPollNanos : System.nanoTime();
+            lastPollNanos = System.nanoTime();
+            polled = true;
+            return previous;
+        }
+
+        /**
+         * Mark the end of a poll, and compute when the next poll is due
+         * @param changeCount the number of changes observed
+         * @param workPending true if there is still work in progress from this or a prior poll
+         */
+        public void pollCompleted(int changeCount, boolean workPending) {
+            changes.increment(changeCount);
+            if (adaptive) {
+                intervalNanos = (changeCount > 0 || workPending) ? minNanos : Math.min(maxNanos, intervalNanos * 2);
+            }
+            nextPollNanos = lastPollNanos + intervalNanos;
+        }
+
+        /**
+         * Poll again as soon as possible, if adaptive
+         */
+        public void trigger() {
+            if (adaptive) {
+                intervalNanos = minNanos;
+                nextPollNanos = System.nanoTime();
+            }
+        }
+
+        /**
+         * Record that a change, observed by a poll that started after the given time, has been applied
+         */
+        public void applied(long changedAfterNanos) {
+            lag.record(System.nanoTime() - changedAfterNanos, TimeUnit.NANOSECONDS);
+        }
+
+        public long getIntervalNanos() {
+            return intervalNanos;
+        }
+
+    }
+
+}
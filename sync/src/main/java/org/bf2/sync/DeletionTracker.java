@@ -0,0 +1,115 @@
+package org.bf2.sync;
+
+import io.fabric8.kubernetes.api.model.Namespace;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bf2.common.ConditionUtils;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaCondition.Reason;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaCondition.Status;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaCondition.Type;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaStatus;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaStatusBuilder;
+import org.bf2.sync.controlplane.ControlPlane;
+import org.jboss.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Informs the control plane that a ManagedKafka is deleted as soon as its namespace
+ * has finished terminating, rather than waiting for the next poll to notice.
+ * <br>
+ * Handles the events of an informer on the namespaces labeled with
+ * {@link ManagedKafkaSync#MANAGEDKAFKA_ID_NAMESPACE_LABEL}.
+ */
+@ApplicationScoped
+public class DeletionTracker implements ResourceEventHandler<Namespace> {
+
+    private static Logger log = Logger.getLogger(DeletionTracker.class);
+
+    @Inject
+    ControlPlane controlPlane;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /* the ManagedKafkas being deleted, by namespace */
+    private final Map<String, ManagedKafka> deleting = new ConcurrentHashMap<>();
+    /* when the deletion was requested, by namespace */
+    private final Map<String, Long> requestedNanos = new ConcurrentHashMap<>();
+
+    private Timer deleteTimer;
+
+    @PostConstruct
+    void init() {
+        deleteTimer = Timer.builder("sync.delete")
+                .description("The time from the control plane delete request to the Deleted status being sent")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public static ManagedKafkaStatus deletedStatus() {
+        return new ManagedKafkaStatusBuilder()
+                .withConditions(ConditionUtils.buildCondition(Type.Ready, Status.False).reason(Reason.Deleted))
+                .build();
+    }
+
+    /**
+     * Called when the namespace of the ManagedKafka is being deleted
+     */
+    public void deleting(ManagedKafka local) {
+        String namespace = local.getMetadata().getNamespace();
+        Long requested = controlPlane.getDeleteRequestedNanos(local);
+        requestedNanos.put(namespace, requested == null ? System.nanoTime() : requested);
+        deleting.put(namespace, local);
+    }
+
+    @Override
+    public void onAdd(Namespace obj) {
+        // nothing to do
+    }
+
+    @Override
+    public void onUpdate(Namespace oldObj, Namespace newObj) {
+        // nothing to do, until it's gone
+    }
+
+    @Override
+    public void onDelete(Namespace obj, boolean deletedFinalStateUnknown) {
+        String namespace = obj.getMetadata().getName();
+        ManagedKafka local = deleting.remove(namespace);
+        Long requested = requestedNanos.remove(namespace);
+        if (local == null) {
+            // not deleted by this sync process, so only report it if the control plane wants it deleted
+            String id = obj.getMetadata().getLabels().get(ManagedKafkaSync.MANAGEDKAFKA_ID_NAMESPACE_LABEL);
+            if (id == null) {
+                return;
+            }
+            local = controlPlane.getDesiredStatesById(id)
+                    .stream()
+                    .filter(mk -> namespace.equals(mk.getMetadata().getNamespace())
+                            && mk.getSpec().isDeleted())
+                    .findFirst()
+                    .orElse(null);
+            if (local == null) {
+                return;
+            }
+            requested = controlPlane.getDeleteRequestedNanos(local);
+        }
+        String id = local.getId();
+        log.infof("Namespace %s is gone, sending the control plane a deleted status for %s", namespace, id);
+        controlPlane.updateKafkaClusterStatus(id + "/deleted", WorkPriority.DELETE, () -> Map.of(id, deletedStatus()));
+        controlPlane.removeDesiredState(local);
+        if (requested != null) {
+            deleteTimer.record(System.nanoTime() - requested, TimeUnit.NANOSECONDS);
+        }
+    }
+
+}
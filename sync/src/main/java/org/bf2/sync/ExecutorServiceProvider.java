@@ -1,8 +1,10 @@
 package org.bf2.sync;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 import javax.annotation.PreDestroy;
@@ -11,9 +13,12 @@ import javax.enterprise.inject.Produces;
 import javax.inject.Inject;
 
 import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -23,35 +28,100 @@ public class ExecutorServiceProvider implements UncaughtExceptionHandler {
 
     private static final String NAME = "sync.threadpool";
 
+    public enum Mode {
+        /** a small fixed pool of platform threads */
+        PLATFORM,
+        /** a virtual thread per task, with concurrency limited to max-concurrency */
+        VIRTUAL
+    }
+
     @Inject
     Logger log;
 
     private MeterRegistry meterRegistry;
 
-    // the number of threads should be less than the size of the rest connection pool (50 by default)
-    ThreadPoolExecutor executor = new ThreadPoolExecutor(5, 10, 1, TimeUnit.MINUTES, new ArrayBlockingQueue<>(10000),
-            new ThreadFactory() {
-                ThreadFactory defaultThreadFactory = Executors.defaultThreadFactory();
+    ExecutorService executor;
 
-                @Override
-                public Thread newThread(Runnable r) {
-                    Thread t = defaultThreadFactory.newThread(r);
-                    t.setUncaughtExceptionHandler(ExecutorServiceProvider.this);
-                    return t;
-                }
-            },
-            new ThreadPoolExecutor.DiscardOldestPolicy() {
-                @Override
-                public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
-                    log.warn("Queue is full - purging an old task");
-                    super.rejectedExecution(r, e);
-                }
+    public ExecutorServiceProvider(MeterRegistry meterRegistry,
+            @ConfigProperty(name = "sync.executor.mode", defaultValue = "platform") String mode,
+            @ConfigProperty(name = "sync.executor.max-concurrency", defaultValue = "50") int maxConcurrency) {
+        this.meterRegistry = meterRegistry;
+        if (Mode.valueOf(mode.toUpperCase()) == Mode.VIRTUAL) {
+            ExecutorService virtual = newVirtualThreadExecutor();
+            if (virtual == null) {
+                Logger.getLogger(ExecutorServiceProvider.class).warnf("Virtual threads are not available in this JVM, using a pool of %s platform threads instead", maxConcurrency);
+                // the caller may be an informer or poll thread, so rejection must not run the task there
+                ThreadPoolExecutor pool = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 1, TimeUnit.MINUTES, new ArrayBlockingQueue<>(10000),
+                        threadFactory(), purgeOldest());
+                pool.allowCoreThreadTimeOut(true);
+                executor = pool;
+            } else {
+                LimitedExecutorService limited = new LimitedExecutorService(virtual, maxConcurrency);
+                // the executor metrics binder only knows about thread pools
+                Gauge.builder("executor.active", limited, LimitedExecutorService::getActiveCount)
+                        .tag("name", NAME)
+                        .description("The approximate number of tasks holding a permit")
+                        .baseUnit("tasks")
+                        .register(meterRegistry);
+                Gauge.builder("executor.queued", limited, LimitedExecutorService::getWaitingCount)
+                        .tag("name", NAME)
+                        .description("The approximate number of tasks waiting for a permit")
+                        .baseUnit("tasks")
+                        .register(meterRegistry);
+                Gauge.builder("executor.pool.max", limited, LimitedExecutorService::getMaxConcurrency)
+                        .tag("name", NAME)
+                        .description("The maximum number of tasks allowed to run at once")
+                        .baseUnit("tasks")
+                        .register(meterRegistry);
+                executor = limited;
+            }
+        } else {
+            // the number of threads should be less than the size of the rest connection pool (50 by default)
+            executor = new ThreadPoolExecutor(5, 10, 1, TimeUnit.MINUTES, new ArrayBlockingQueue<>(10000),
+                    threadFactory(), purgeOldest());
+        }
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, NAME);
+    }
 
-            });
+    private ThreadPoolExecutor.DiscardOldestPolicy purgeOldest() {
+        return new ThreadPoolExecutor.DiscardOldestPolicy() {
+            @Override
+            public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
+                log.warn("Queue is full - purging an old task");
+                super.rejectedExecution(r, e);
+            }
 
-    public ExecutorServiceProvider(MeterRegistry meterRegistry) {
-        ExecutorServiceMetrics.monitor(meterRegistry, executor, NAME);
-        this.meterRegistry = meterRegistry;
+        };
+    }
+
+    private ThreadFactory threadFactory() {
+        return new ThreadFactory() {
+            ThreadFactory defaultThreadFactory = Executors.defaultThreadFactory();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = defaultThreadFactory.newThread(r);
+                t.setUncaughtExceptionHandler(ExecutorServiceProvider.this);
+                return t;
+            }
+        };
+    }
+
+    /**
+     * Create a virtual thread per task executor if supported by the running JVM.
+     * Reflection is used since we still compile for 11.
+     */
+    private ExecutorService newVirtualThreadExecutor() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, NAME + "-", 0L);
+            builder = builderClass.getMethod("uncaughtExceptionHandler", UncaughtExceptionHandler.class).invoke(builder, this);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            return null;
+        }
     }
 
     @Produces
@@ -65,9 +135,19 @@ public class ExecutorServiceProvider implements UncaughtExceptionHandler {
         executor.shutdownNow();
     }
 
+    /**
+     * The tasks catch their own failures and count them with {@link #countFailure(MeterRegistry, Throwable)},
+     * so this only logs what escapes them.
+     */
     @Override
     public void uncaughtException(Thread t, Throwable e) {
         log.errorf(e, "Uncaught exception running task");
+    }
+
+    /**
+     * Count a task that failed on the shared executor
+     */
+    static void countFailure(MeterRegistry meterRegistry, Throwable e) {
         Counter.Builder builder = Counter.builder("executor.failed.tasks")
                 .tag("name", NAME)
                 .tag("exception", getExceptionTag(e))
@@ -76,11 +156,91 @@ public class ExecutorServiceProvider implements UncaughtExceptionHandler {
         builder.register(meterRegistry).increment();
     }
 
-    private String getExceptionTag(Throwable e) {
+    /**
+     * The queue workers to use by default - with virtual threads there is no pool to size, so enough
+     * workers are needed to use all of max-concurrency
+     */
+    static int defaultWorkers(String mode, int maxConcurrency) {
+        return Mode.valueOf(mode.toUpperCase()) == Mode.VIRTUAL ? maxConcurrency : 5;
+    }
+
+    private static String getExceptionTag(Throwable e) {
         if (e.getCause() != null) {
             return e.getCause().getClass().getSimpleName();
         }
         return e.getClass().getSimpleName();
     }
 
+    /**
+     * Limits the number of tasks running at once, such that cheap threads may
+     * wait for a permit rather than exhausting the rest connection pool.
+     */
+    static class LimitedExecutorService extends AbstractExecutorService {
+
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+        private final int maxConcurrency;
+
+        LimitedExecutorService(ExecutorService delegate, int maxConcurrency) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(maxConcurrency);
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        int getActiveCount() {
+            return maxConcurrency - permits.availablePermits();
+        }
+
+        int getWaitingCount() {
+            return permits.getQueueLength();
+        }
+
+        int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            delegate.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+
+    }
+
 }
@@ -0,0 +1,309 @@
+package org.bf2.sync;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A work queue modeled after the client-go workqueue:
+ * <ul>
+ * <li>there is at most one pending task per key - a newer task replaces an older one
+ * <li>tasks for the same key are never run concurrently
+ * <li>failed tasks are retried with a per key exponential backoff, unless superseded
+ * <li>each task has a {@link WorkPriority}, and the priority classes with ready tasks are
+ * served by a smooth weighted round robin - a superseding task keeps the more urgent
+ * priority of the two
+ * </ul>
+ * Tasks are run using the shared {@link ExecutorService}, but with no more than a fixed
+ * number of entries in its queue at a time.
+ */
+@ApplicationScoped
+public class KeyedWorkQueue {
+
+    private static final String NAME = "sync.queue";
+    private static final WorkPriority[] PRIORITIES = WorkPriority.values();
+
+    private static final class Entry {
+        final Runnable task;
+        final WorkPriority priority;
+        final long enqueuedNanos;
+
+        Entry(Runnable task, WorkPriority priority) {
+            this.task = task;
+            this.priority = priority;
+            this.enqueuedNanos = System.nanoTime();
+        }
+    }
+
+    @Inject
+    Logger log;
+
+    @Inject
+    ExecutorService executorService;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /**
+     * 0 or less means sized from the executor mode
+     */
+    @ConfigProperty(name = "sync.queue.workers", defaultValue = "0")
+    int maxWorkers;
+
+    @ConfigProperty(name = "sync.executor.mode", defaultValue = "platform")
+    String executorMode;
+
+    @ConfigProperty(name = "sync.executor.max-concurrency", defaultValue = "50")
+    int maxConcurrency;
+
+    @ConfigProperty(name = "sync.queue.max-retries", defaultValue = "5")
+    int maxRetries;
+
+    @ConfigProperty(name = "sync.queue.backoff.initial", defaultValue = "1s")
+    Duration initialBackoff;
+
+    @ConfigProperty(name = "sync.queue.backoff.max", defaultValue = "2m")
+    Duration maxBackoff;
+
+    /* the latest task for each key that has not yet started */
+    private final Map<String, Entry> pending = new HashMap<>();
+    /* keys with pending tasks that are not currently processing, by priority in arrival order */
+    private final Map<WorkPriority, Deque<String>> ready = new EnumMap<>(WorkPriority.class);
+    /* the weighted round robin state of each priority */
+    private final int[] credits = new int[PRIORITIES.length];
+    private final Set<String> processing = new HashSet<>();
+    /* tasks waiting for their backoff to expire */
+    private final Map<String, Entry> retrying = new HashMap<>();
+    private final Map<String, Integer> failures = new HashMap<>();
+    private int workers;
+
+    private ScheduledExecutorService retryScheduler;
+    private final Map<WorkPriority, Timer> waitTimers = new EnumMap<>(WorkPriority.class);
+    private Counter supersededCounter;
+
+    @PostConstruct
+    void init() {
+        if (maxWorkers <= 0) {
+            maxWorkers = ExecutorServiceProvider.defaultWorkers(executorMode, maxConcurrency);
+        }
+        retryScheduler = Executors.newSingleThreadScheduledExecutor();
+        for (WorkPriority priority : PRIORITIES) {
+            ready.put(priority, new ArrayDeque<>());
+            waitTimers.put(priority, Timer.builder(NAME + ".wait")
+                    .tag("priority", priority.name().toLowerCase())
+                    .description("The time tasks spend in the queue before being run")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        supersededCounter = Counter.builder(NAME + ".superseded")
+                .description("The number of tasks replaced by a newer task for the same key")
+                .register(meterRegistry);
+        meterRegistry.gauge(NAME + ".depth", this, KeyedWorkQueue::getDepth);
+        meterRegistry.gauge(NAME + ".retrying", this, KeyedWorkQueue::getRetrying);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        retryScheduler.shutdownNow();
+    }
+
+    /**
+     * Add the task to the queue with {@link WorkPriority#UPDATE} priority, replacing any pending task for the same key
+     */
+    public void enqueue(String key, Runnable task) {
+        enqueue(key, WorkPriority.UPDATE, task);
+    }
+
+    /**
+     * Add the task to the queue, replacing any pending task for the same key
+     */
+    public void enqueue(String key, WorkPriority priority, Runnable task) {
+        synchronized (this) {
+            Entry retry = retrying.remove(key);
+            Entry previous = pending.get(key);
+            if (previous != null) {
+                priority = priority.max(previous.priority);
+            } else if (retry != null) {
+                priority = priority.max(retry.priority);
+            }
+            pending.put(key, new Entry(task, priority));
+            if (previous != null) {
+                supersededCounter.increment();
+                if (priority != previous.priority && !processing.contains(key)) {
+                    ready.get(previous.priority).remove(key);
+                    ready.get(priority).add(key);
+                }
+                return;
+            }
+            if (!processing.contains(key)) {
+                ready.get(priority).add(key);
+            }
+        }
+        startWorker();
+    }
+
+    public synchronized int getDepth() {
+        return pending.size();
+    }
+
+    public synchronized int getRetrying() {
+        return retrying.size();
+    }
+
+    /**
+     * Return true if there are no tasks pending, running, or waiting to retry
+     */
+    public synchronized boolean isIdle() {
+        return pending.isEmpty() && processing.isEmpty() && retrying.isEmpty();
+    }
+
+    private void startWorker() {
+        synchronized (this) {
+            if (workers >= maxWorkers || ready.values().stream().allMatch(Deque::isEmpty)) {
+                return;
+            }
+            workers++;
+        }
+        try {
+            executorService.execute(this::work);
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                workers--;
+            }
+            throw e;
+        }
+    }
+
+    private void work() {
+        while (true) {
+            String key;
+            Entry entry;
+            synchronized (this) {
+                key = nextReady();
+                if (key == null) {
+                    workers--;
+                    return;
+                }
+                entry = pending.remove(key);
+                processing.add(key);
+            }
+            waitTimers.get(entry.priority).record(System.nanoTime() - entry.enqueuedNanos, TimeUnit.NANOSECONDS);
+            Throwable failure = null;
+            try {
+                entry.task.run();
+            } catch (RuntimeException e) {
+                failure = e;
+            } catch (Error e) {
+                synchronized (this) {
+                    workers--;
+                }
+                done(key, entry, e);
+                // this worker is exiting, so another is needed for what done made ready
+                try {
+                    startWorker();
+                } catch (RuntimeException re) {
+                    e.addSuppressed(re);
+                }
+                throw e;
+            }
+            done(key, entry, failure);
+        }
+    }
+
+    /**
+     * Smooth weighted round robin over the priorities with ready keys - each gains its
+     * weight in credit, and the one with the most credit is charged the total weight.
+     * Ties go to the more urgent priority.
+     */
+    private String nextReady() {
+        WorkPriority selected = null;
+        int total = 0;
+        for (WorkPriority priority : PRIORITIES) {
+            int i = priority.ordinal();
+            if (ready.get(priority).isEmpty()) {
+                // idle priorities do not accumulate credit
+                credits[i] = 0;
+                continue;
+            }
+            credits[i] += priority.getWeight();
+            total += priority.getWeight();
+            if (selected == null || credits[i] > credits[selected.ordinal()]) {
+                selected = priority;
+            }
+        }
+        if (selected == null) {
+            return null;
+        }
+        credits[selected.ordinal()] -= total;
+        return ready.get(selected).poll();
+    }
+
+    private synchronized void done(String key, Entry entry, Throwable failure) {
+        processing.remove(key);
+        if (failure == null) {
+            failures.remove(key);
+        } else {
+            ExecutorServiceProvider.countFailure(meterRegistry, failure);
+            int attempts = failures.merge(key, 1, Integer::sum);
+            if (attempts > maxRetries) {
+                log.errorf(failure, "Task for %s failed after %s retries", key, maxRetries);
+                failures.remove(key);
+            } else if (!pending.containsKey(key)) {
+                long delay = backoff(attempts);
+                log.warnf(failure, "Task for %s failed, will retry in %sms", key, delay);
+                retrying.put(key, entry);
+                retryScheduler.schedule(() -> retry(key, entry), delay, TimeUnit.MILLISECONDS);
+                Counter.builder(NAME + ".retries")
+                        .tag("exception", failure.getClass().getSimpleName())
+                        .description("The number of tasks that have been retried")
+                        .register(meterRegistry)
+                        .increment();
+            }
+        }
+        Entry next = pending.get(key);
+        if (next != null) {
+            ready.get(next.priority).add(key);
+        }
+    }
+
+    long backoff(int attempts) {
+        long delay = initialBackoff.toMillis() << Math.min(attempts - 1, 30);
+        return Math.min(delay, maxBackoff.toMillis());
+    }
+
+    private void retry(String key, Entry entry) {
+        synchronized (this) {
+            // a newer task will have removed this one
+            if (!retrying.remove(key, entry)) {
+                return;
+            }
+            pending.put(key, new Entry(entry.task, entry.priority));
+            if (!processing.contains(key)) {
+                ready.get(entry.priority).add(key);
+            }
+        }
+        startWorker();
+    }
+
+}
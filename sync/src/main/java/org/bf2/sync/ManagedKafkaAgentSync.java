@@ -10,11 +10,10 @@ import org.bf2.sync.controlplane.ControlPlane;
 import org.bf2.sync.informer.LocalLookup;
 import org.jboss.logging.Logger;
 
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
-import java.util.Objects;
-
 @ApplicationScoped
 public class ManagedKafkaAgentSync {
 
@@ -30,16 +29,46 @@ public class ManagedKafkaAgentSync {
     @Inject
     ControlPlane controlPlane;
 
+    @Inject
+    AdaptivePolling adaptivePolling;
+
+    AdaptivePolling.Interval pollInterval;
+
+    @PostConstruct
+    void init() {
+        pollInterval = adaptivePolling.forResource("ManagedKafkaAgent");
+    }
+
+    @Scheduled(every = "{poll.tick}", delayed = "{poll.delay}", concurrentExecution = ConcurrentExecution.SKIP)
+    void pollAgent() {
+        if (pollInterval.isDue()) {
+            loop();
+        }
+    }
+
     @Timed(value = "sync.poll", extraTags = {"resource", "ManagedKafkaAgent"}, description = "The time spent processing polling calls")
     @Counted(value = "sync.poll", extraTags = {"resource", "ManagedKafkaAgent"}, description = "The number of polling calls")
-    @Scheduled(every = "{poll.interval}", delayed = "{poll.delay}", concurrentExecution = ConcurrentExecution.SKIP)
     void loop() {
-        ManagedKafkaAgent managedKafkaAgent = controlPlane.getManagedKafkaAgent();
-        Objects.requireNonNull(managedKafkaAgent);
-        createOrUpdateManagedKafkaAgent(managedKafkaAgent);
+        long changedAfter = pollInterval.pollStarted();
+        boolean changed = false;
+        try {
+            ManagedKafkaAgent managedKafkaAgent = controlPlane.getManagedKafkaAgentIfModified();
+            if (managedKafkaAgent == null) {
+                return; // not modified
+            }
+            changed = createOrUpdateManagedKafkaAgent(managedKafkaAgent);
+            if (changed) {
+                pollInterval.applied(changedAfter);
+            }
+        } finally {
+            pollInterval.pollCompleted(changed ? 1 : 0, false);
+        }
     }
 
-    private void createOrUpdateManagedKafkaAgent(ManagedKafkaAgent remoteAgent) {
+    /**
+     * @return true if the local agent was created or updated
+     */
+    private boolean createOrUpdateManagedKafkaAgent(ManagedKafkaAgent remoteAgent) {
         ManagedKafkaAgent resource = lookup.getLocalManagedKafkaAgent();
         if (resource == null) {
             // the informer may not have run yet, so check more definitively
@@ -51,13 +80,16 @@ public class ManagedKafkaAgentSync {
             remoteAgent.getMetadata().setName(ManagedKafkaAgentResourceClient.RESOURCE_NAME);
             this.agentClient.create(remoteAgent);
             log.infof("ManagedKafkaAgent CR created");
+            return true;
         } else if (!remoteAgent.getSpec().equals(resource.getSpec())) {
             this.agentClient.edit(this.agentClient.getNamespace(), ManagedKafkaAgentResourceClient.RESOURCE_NAME, mka -> {
                 mka.setSpec(remoteAgent.getSpec());
                 return mka;
             });
             log.infof("ManagedKafkaAgent CR updated");
+            return true;
         }
+        return false;
     }
 
 }
@@ -2,6 +2,7 @@ package org.bf2.sync;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.kubernetes.api.model.Namespace;
 import io.fabric8.kubernetes.api.model.NamespaceBuilder;
 import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.Secret;
@@ -15,48 +16,54 @@ import io.fabric8.kubernetes.client.utils.Serialization;
 import io.fabric8.zjsonpatch.JsonDiff;
 import io.micrometer.core.annotation.Counted;
 import io.micrometer.core.annotation.Timed;
+import io.quarkus.runtime.StartupEvent;
 import io.quarkus.scheduler.Scheduled;
 import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
 import org.bf2.common.ConditionUtils;
 import org.bf2.common.ManagedKafkaResourceClient;
 import org.bf2.common.OperandUtils;
+import org.bf2.common.ResourceIndexers;
 import org.bf2.common.health.SystemTerminator;
 import org.bf2.operator.ManagedKafkaKeys;
 import org.bf2.operator.resources.v1alpha1.ManagedKafka;
 import org.bf2.operator.resources.v1alpha1.ManagedKafkaCondition.Reason;
-import org.bf2.operator.resources.v1alpha1.ManagedKafkaCondition.Status;
 import org.bf2.operator.resources.v1alpha1.ManagedKafkaCondition.Type;
 import org.bf2.operator.resources.v1alpha1.ManagedKafkaSpec;
-import org.bf2.operator.resources.v1alpha1.ManagedKafkaStatusBuilder;
 import org.bf2.sync.controlplane.ControlPlane;
+import org.bf2.sync.controlplane.ControlPlaneWatch;
 import org.bf2.sync.informer.LocalLookup;
-import org.eclipse.microprofile.context.ManagedExecutor;
 import org.jboss.logging.Logger;
 import org.jboss.logging.NDC;
 
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 
 import java.net.HttpURLConnection;
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ExecutorService;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Has the responsibility of processing the remote list of ManagedKafka from the
  * control plane.
  *
- * Actual modifications to the kube ManagedKafka are added to a simple work
- * queue, but you could envision using a more involved approach
- * https://github.com/kubernetes/client-go/tree/master/examples/workqueue -
- * where tasks could be superseded, rate limited, etc.
+ * Actual modifications to the kube ManagedKafka are added to a {@link KeyedWorkQueue},
+ * so that reconciliations of the same instance are superseded rather than repeated,
+ * never run concurrently, and are retried with backoff.
  */
 @ApplicationScoped
 public class ManagedKafkaSync {
     private static final String MANAGEDKAFKA_ID_LABEL = "bf2.org/id";
-    private static final String MANAGEDKAFKA_ID_NAMESPACE_LABEL = "bf2.org/managedkafka-id";
+    public static final String MANAGEDKAFKA_ID_NAMESPACE_LABEL = ResourceIndexers.MANAGEDKAFKA_ID_LABEL;
     private static Logger log = Logger.getLogger(ManagedKafkaSync.class);
 
     @Inject
@@ -72,7 +79,7 @@ public class ManagedKafkaSync {
     KubernetesClient kubeClient;
 
     @Inject
-    ExecutorService executorService;
+    KeyedWorkQueue workQueue;
 
     @Inject
     protected SecretManager secretManager;
@@ -80,82 +87,138 @@ public class ManagedKafkaSync {
     @Inject
     SystemTerminator systemTerminator;
 
+    @Inject
+    ProvisioningStages stages;
+
+    @Inject
+    ControlPlaneWatch watch;
+
+    @Inject
+    DeletionTracker deletionTracker;
+
+    @Inject
+    AdaptivePolling adaptivePolling;
+
+    AdaptivePolling.Interval pollInterval;
+
+    private final AtomicInteger pollChanges = new AtomicInteger();
+    /* the local keys of the ManagedKafkas with a create in progress */
+    private final Set<String> provisioning = ConcurrentHashMap.newKeySet();
+    private volatile long changedAfterNanos;
+
+    @PostConstruct
+    void init() {
+        pollInterval = adaptivePolling.forResource("ManagedKafka");
+    }
+
+    /**
+     * Watched changes take the same path as those from a poll
+     */
+    void onStart(@Observes StartupEvent ev) {
+        watch.start(this::syncKafkaCluster);
+    }
+
     /**
      * Update the local state based upon the remote ManagedKafkas
      * The strategy here is to take a pass over the list and find any deferred work
-     * Then execute that deferred work using the {@link ManagedExecutor} but with
+     * Then execute that deferred work using the {@link KeyedWorkQueue} but with
      * a refresh of the state to ensure we're still acting appropriately.
      */
     @Timed(value = "sync.poll", extraTags = {"resource", "ManagedKafka"}, description = "The time spent processing polling calls")
     @Counted(value = "sync.poll", extraTags = {"resource", "ManagedKafka"}, description = "The number of polling calls")
     public void syncKafkaClusters() {
-        Map<String, ManagedKafka> remotes = new HashMap<>();
-
-        for (ManagedKafka remoteManagedKafka : controlPlane.getKafkaClusters()) {
-            // these are basically assertions - there's not expected to fail in a real environment
-            Objects.requireNonNull(remoteManagedKafka.getId());
-            Objects.requireNonNull(remoteManagedKafka.getMetadata().getNamespace());
+        changedAfterNanos = pollInterval.pollStarted();
+        pollChanges.set(0);
+        try {
+            doSyncKafkaClusters();
+        } finally {
+            pollInterval.pollCompleted(pollChanges.get(), workQueue.getDepth() > 0);
+        }
+    }
 
-            remotes.put(ControlPlane.managedKafkaKey(remoteManagedKafka), remoteManagedKafka);
-            ManagedKafkaSpec remoteSpec = remoteManagedKafka.getSpec();
-            Objects.requireNonNull(remoteSpec);
+    private void doSyncKafkaClusters() {
+        List<ManagedKafka> changes = controlPlane.getKafkaClusterChanges();
+        if (changes != null) {
+            // a delta can't tell us about removals, those are handled by the next full poll
+            changes.forEach(this::syncKafkaCluster);
+            return;
+        }
 
-            String localKey = Cache.namespaceKeyFunc(remoteManagedKafka.getMetadata().getNamespace(), remoteManagedKafka.getMetadata().getName());
-            ManagedKafka existing = lookup.getLocalManagedKafka(localKey);
+        Set<String> remotes = new HashSet<>();
 
-            // special handling if the control plane indicates paused
-            if (remoteManagedKafka.getAnnotation(ManagedKafkaKeys.Annotations.PAUSE_RECONCILIATION).map(Boolean::valueOf).orElse(false)) {
-                if (!remoteManagedKafka.getSpec().isDeleted()) {
-                    log.debugf("Taking no action on ManagedKafka %s as the control plane has paused it", Cache.metaNamespaceKeyFunc(remoteManagedKafka));
-                    continue;
-                }
-                if (existing != null) {
-                    if (!existing.getSpec().isDeleted()) {
-                        log.debugf("Passing just the delete flag to the ManagedKafka %s", Cache.metaNamespaceKeyFunc(remoteManagedKafka));
-                        kubeClient.resources(ManagedKafka.class)
-                                .inNamespace(existing.getMetadata().getNamespace())
-                                .withName(existing.getMetadata().getName())
-                                .patch(PatchContext.of(PatchType.JSON),
-                                        "[{\"op\": \"replace\", \"path\":\"/spec/deleted\", \"value\":true}]");
-                    }
-                    continue;
-                }
-            }
+        boolean modified = controlPlane.getKafkaClusters(remoteManagedKafka -> {
+            remotes.add(ControlPlane.managedKafkaKey(remoteManagedKafka));
+            syncKafkaCluster(remoteManagedKafka);
+        });
 
-            // take action based upon differences
-            // this is really just seeing if an instance needs created and the delete flag
-            // there are no other fields to reconcile - but you could envision updating
-            // component versions etc. later
-
-            if (existing == null) {
-                if (!remoteSpec.isDeleted()) {
-                    reconcileAsync(ControlPlane.managedKafkaKey(remoteManagedKafka), localKey);
-                } else if (isConsistent(remoteManagedKafka)) {
-                    log.warnf("ManagedKafka %s no longer exists, sending the control plane a dummy deleted status", Cache.metaNamespaceKeyFunc(remoteManagedKafka));
-                    // we've successfully removed locally, but control plane is not aware
-                    // we need to send another status update to let them know
-
-                    ManagedKafkaStatusBuilder statusBuilder = new ManagedKafkaStatusBuilder();
-                    statusBuilder.withConditions(ConditionUtils.buildCondition(Type.Ready, Status.False).reason(Reason.Deleted));
-                    // fire and forget the async call - if it fails, we'll retry on the next poll
-                    controlPlane.updateKafkaClusterStatus(()->{return Map.of(remoteManagedKafka.getId(), statusBuilder.build());});
-                }
-            } else if (changed(remoteManagedKafka, existing)) {
-                reconcileAsync(ControlPlane.managedKafkaKey(remoteManagedKafka), localKey);
-            }
+        if (!modified) {
+            return; // the same as what was already processed
         }
 
         // process final removals
         for (ManagedKafka local : lookup.getLocalManagedKafkas()) {
-            if (remotes.get(ControlPlane.managedKafkaKey(local)) != null || !deleteAllowed(local)) {
+            if (remotes.contains(ControlPlane.managedKafkaKey(local)) || !deleteAllowed(local)) {
                 continue;
             }
 
-            reconcileAsync(null, Cache.metaNamespaceKeyFunc(local));
+            reconcileAsync(null, Cache.metaNamespaceKeyFunc(local), WorkPriority.DELETE);
         }
 
     }
 
+    private void syncKafkaCluster(ManagedKafka remoteManagedKafka) {
+        // these are basically assertions - there's not expected to fail in a real environment
+        Objects.requireNonNull(remoteManagedKafka.getId());
+        Objects.requireNonNull(remoteManagedKafka.getMetadata().getNamespace());
+
+        ManagedKafkaSpec remoteSpec = remoteManagedKafka.getSpec();
+        Objects.requireNonNull(remoteSpec);
+
+        String localKey = Cache.namespaceKeyFunc(remoteManagedKafka.getMetadata().getNamespace(), remoteManagedKafka.getMetadata().getName());
+        ManagedKafka existing = lookup.getLocalManagedKafka(localKey);
+
+        // special handling if the control plane indicates paused
+        if (remoteManagedKafka.getAnnotation(ManagedKafkaKeys.Annotations.PAUSE_RECONCILIATION).map(Boolean::valueOf).orElse(false)) {
+            if (!remoteManagedKafka.getSpec().isDeleted()) {
+                log.debugf("Taking no action on ManagedKafka %s as the control plane has paused it", Cache.metaNamespaceKeyFunc(remoteManagedKafka));
+                return;
+            }
+            if (existing != null) {
+                if (!existing.getSpec().isDeleted()) {
+                    log.debugf("Passing just the delete flag to the ManagedKafka %s", Cache.metaNamespaceKeyFunc(remoteManagedKafka));
+                    kubeClient.resources(ManagedKafka.class)
+                            .inNamespace(existing.getMetadata().getNamespace())
+                            .withName(existing.getMetadata().getName())
+                            .patch(PatchContext.of(PatchType.JSON),
+                                    "[{\"op\": \"replace\", \"path\":\"/spec/deleted\", \"value\":true}]");
+                }
+                return;
+            }
+        }
+
+        // take action based upon differences
+        // this is really just seeing if an instance needs created and the delete flag
+        // there are no other fields to reconcile - but you could envision updating
+        // component versions etc. later
+
+        if (existing == null) {
+            if (!remoteSpec.isDeleted()) {
+                reconcileAsync(ControlPlane.managedKafkaKey(remoteManagedKafka), localKey, WorkPriority.CREATE);
+            } else if (isConsistent(remoteManagedKafka)) {
+                log.warnf("ManagedKafka %s no longer exists, sending the control plane a dummy deleted status", Cache.metaNamespaceKeyFunc(remoteManagedKafka));
+                // we've successfully removed locally, but control plane is not aware
+                // we need to send another status update to let them know
+
+                // fire and forget the async call - if it fails, we'll retry on the next poll
+                controlPlane.updateKafkaClusterStatus(remoteManagedKafka.getId() + "/deleted", WorkPriority.DELETE,
+                        ()->{return Map.of(remoteManagedKafka.getId(), DeletionTracker.deletedStatus());});
+            }
+        } else if (changed(remoteManagedKafka, existing)) {
+            reconcileAsync(ControlPlane.managedKafkaKey(remoteManagedKafka), localKey,
+                    remoteSpec.isDeleted() ? WorkPriority.DELETE : WorkPriority.UPDATE);
+        }
+    }
+
     boolean deleteAllowed(ManagedKafka local) {
         if (local.getId() == null) {
             return false; // not a managed instance
@@ -182,6 +245,22 @@ public class ManagedKafkaSync {
             log.warnf("Ignoring ManagedKafka %s that wants to come back to life", Cache.metaNamespaceKeyFunc(existing));
             return false;
         }
+        String localFingerprint = existing.getAnnotation(ManagedKafkaKeys.Annotations.DESIRED_STATE_FINGERPRINT).orElse(null);
+        if (localFingerprint == null) {
+            // applied before fingerprints were recorded
+            return deepChanged(remote, existing);
+        }
+        if (localFingerprint.equals(controlPlane.getDesiredStateFingerprint(remote))) {
+            return false;
+        }
+        if (log.isDebugEnabled()) {
+            // just for the logging of what changed
+            deepChanged(remote, existing);
+        }
+        return true;
+    }
+
+    boolean deepChanged(ManagedKafka remote, ManagedKafka existing) {
         if (secretManager.isMasterSecretChanged(remote, existing)) {
             log.debugf("Remote master secret data changed");
             return true;
@@ -224,10 +303,14 @@ public class ManagedKafkaSync {
     /**
      * @param remoteId - obtained from {@link ControlPlane#managedKafkaKey(ManagedKafka)}
      * @param localMetaNamespaceKey - obtained from {@link Cache#namespaceKeyFunc(String, String)}
+     * @param priority - the kind of change, which determines how soon it is run under load
      */
-    void reconcileAsync(String remoteId, String localMetaNamespaceKey) {
-        executorService.execute(() -> {
+    void reconcileAsync(String remoteId, String localMetaNamespaceKey, WorkPriority priority) {
+        pollChanges.incrementAndGet();
+        long changedAfter = changedAfterNanos;
+        workQueue.enqueue(localMetaNamespaceKey, priority, () -> {
             reconcile(remoteId, localMetaNamespaceKey);
+            pollInterval.applied(changedAfter);
         });
     }
 
@@ -263,7 +346,7 @@ public class ManagedKafkaSync {
         try {
             if (local == null) {
                 if (!remote.getSpec().isDeleted()) {
-                    create(remote);
+                    provision(remote, localMetaNamespaceKey);
                 }
             } else if (remote == null) {
                 if (deleteAllowed(local)) {
@@ -276,6 +359,7 @@ public class ManagedKafkaSync {
                 }
                 if (changed(remote, local)) {
                     log.debugf("Updating ManagedKafka %s", Cache.metaNamespaceKeyFunc(local));
+                    String fingerprint = controlPlane.getDesiredStateFingerprint(remote);
                     Secret masterSecret = secretManager.buildSecret(remote);
                     ManagedKafka remoteCopy = secretManager.removeSecretsFromManagedKafka(remote);
                     ManagedKafkaSpec spec = remoteCopy.getSpec();
@@ -289,6 +373,7 @@ public class ManagedKafkaSync {
                                 mk.getMetadata().getAnnotations().putAll(existingAnnotations);
                             }
                             secretManager.calculateMasterSecretDigest(mk, masterSecret);
+                            mk.getMetadata().getAnnotations().put(ManagedKafkaKeys.Annotations.DESIRED_STATE_FINGERPRINT, fingerprint);
                             mk.setSpec(spec);
                             return mk;
                         });
@@ -308,47 +393,103 @@ public class ManagedKafkaSync {
 
         client.delete(local.getMetadata().getNamespace(), local.getMetadata().getName());
 
+        deletionTracker.deleting(local);
         kubeClient.namespaces().withName(local.getMetadata().getNamespace()).delete();
 
         // only remove the local after we're fully cleaned up, so that
         // we'll keep retrying if there is a failure
         controlPlane.removeDesiredState(local);
+        secretManager.evict(local);
+
+        // the control plane may be waiting on this to proceed, so don't wait out a long interval
+        pollInterval.trigger();
     }
 
-    void create(ManagedKafka remote) {
+    /**
+     * Start creating the ManagedKafka, unless it is already being created.  The worker does not wait
+     * for the stages to complete - if they fail, the next poll will find it missing and try again.
+     */
+    void provision(ManagedKafka remote, String localMetaNamespaceKey) {
+        if (!provisioning.add(localMetaNamespaceKey)) {
+            log.debugf("ManagedKafka %s is already being created", localMetaNamespaceKey);
+            return;
+        }
+        create(remote).whenComplete((created, e) -> {
+            provisioning.remove(localMetaNamespaceKey);
+            if (e != null) {
+                log.warnf(e, "Could not create ManagedKafka %s, it will be retried on the next poll", localMetaNamespaceKey);
+            }
+        });
+    }
+
+    CompletableFuture<ManagedKafka> create(ManagedKafka remote) {
         // log after the namespace is set
         log.debugf("Creating ManagedKafka %s", Cache.metaNamespaceKeyFunc(remote));
         final String remoteNamespace = remote.getMetadata().getNamespace();
         final String remoteManagedKafkaId = remote.getMetadata().getAnnotations() == null ? null : remote.getMetadata().getAnnotations().get(MANAGEDKAFKA_ID_LABEL);
+        String fingerprint = controlPlane.getDesiredStateFingerprint(remote);
 
-        kubeClient.namespaces().createOrReplace(
-                new NamespaceBuilder()
-                        .withNewMetadata()
-                            .withName(remoteNamespace)
-                            .withLabels(OperandUtils.getDefaultLabels())
-                            .addToLabels("observability-operator/scrape-logging", "true")
-                            .addToLabels(MANAGEDKAFKA_ID_NAMESPACE_LABEL, remoteManagedKafkaId)
-                        .endMetadata()
-                        .build());
+        CompletableFuture<Void> namespace = stages.start("namespace", () -> {
+            createNamespaceIfAbsent(remoteNamespace, remoteManagedKafkaId);
+            return null;
+        });
 
         //Creating the master Secrets
-       Secret secret = secretManager.buildSecret(remote);
-       remote = secretManager.removeSecretsFromManagedKafka(remote);
-       secretManager.calculateMasterSecretDigest(remote, secret);
-
-       try {
-           remote = client.create(remote);
-           secretManager.createOrUpdateSecret(remote, secret);
-       } catch (KubernetesClientException e) {
-           if (e.getStatus().getCode() != HttpURLConnection.HTTP_CONFLICT) {
-               throw e;
-           }
-           // it's possible, but unlikely, that we'll see two reconciliations close enough together
-           // such that we'll naturally see a conflict - that is the second completes before the cache
-           // is updated.  It's more likely that the cache state is not up-to-date, so we'll just
-           // let an exception happen in that case
-           isConsistent(remote);
-       }
+        CompletableFuture<Secret> secret = stages.then(namespace, "secret-build", ignored -> secretManager.buildSecret(remote));
+
+        CompletableFuture<ManagedKafka> created = stages.then(secret, "managedkafka", masterSecret -> {
+            ManagedKafka local = secretManager.removeSecretsFromManagedKafka(remote);
+            secretManager.calculateMasterSecretDigest(local, masterSecret);
+            local.getMetadata().getAnnotations().put(ManagedKafkaKeys.Annotations.DESIRED_STATE_FINGERPRINT, fingerprint);
+            try {
+                return client.create(local);
+            } catch (KubernetesClientException e) {
+                if (e.getStatus().getCode() != HttpURLConnection.HTTP_CONFLICT) {
+                    throw e;
+                }
+                // it's possible, but unlikely, that we'll see two reconciliations close enough together
+                // such that we'll naturally see a conflict - that is the second completes before the cache
+                // is updated.  It's more likely that the cache state is not up-to-date, so we'll just
+                // let an exception happen in that case
+                isConsistent(local);
+                return null;
+            }
+        });
+
+        // the secret future is already complete, as the managedkafka stage follows it
+        return stages.then(created, "secret", local -> {
+            if (local != null) {
+                secretManager.createSecret(local, secret.join());
+            }
+            return local;
+        });
+    }
+
+    /**
+     * A single create call, rather than a get and replace, as the namespace
+     * will not be expected to exist.  If it does, the labels are merged onto it, as
+     * the {@link DeletionTracker} only sees namespaces with the managedkafka id label.
+     */
+    private void createNamespaceIfAbsent(String namespace, String managedKafkaId) {
+        Namespace desired = new NamespaceBuilder()
+                .withNewMetadata()
+                    .withName(namespace)
+                    .withLabels(OperandUtils.getDefaultLabels())
+                    .addToLabels("observability-operator/scrape-logging", "true")
+                    .addToLabels(MANAGEDKAFKA_ID_NAMESPACE_LABEL, managedKafkaId)
+                .endMetadata()
+                .build();
+        try {
+            kubeClient.namespaces().create(desired);
+        } catch (KubernetesClientException e) {
+            if (e.getCode() != HttpURLConnection.HTTP_CONFLICT) {
+                throw e;
+            }
+            kubeClient.namespaces()
+                    .withName(namespace)
+                    .patch(PatchContext.of(PatchType.JSON_MERGE),
+                            Serialization.asJson(Map.of("metadata", Map.of("labels", desired.getMetadata().getLabels()))));
+        }
     }
 
     /**
@@ -372,11 +513,12 @@ public class ManagedKafkaSync {
         }
     }
 
-    @Scheduled(every = "{poll.interval}", delayed = "{poll.delay}", concurrentExecution = ConcurrentExecution.SKIP)
+    @Scheduled(every = "{poll.tick}", delayed = "{poll.delay}", concurrentExecution = ConcurrentExecution.SKIP)
     void pollKafkaClusters() {
+        if (!pollInterval.isDue()) {
+            return;
+        }
         log.debug("Polling for control plane managed kafkas");
-        // TODO: this is based upon a full poll - eventually this could be
-        // based upon a delta revision / timestmap to get a smaller list
         syncKafkaClusters();
     }
 }
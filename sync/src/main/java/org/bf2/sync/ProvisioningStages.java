@@ -0,0 +1,129 @@
+package org.bf2.sync;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs the steps of provisioning an instance as a pipeline of named stages.  Each stage has its own
+ * executor, which runs at most sync.create.stage-concurrency of its steps at once on the shared
+ * {@link ExecutorService}.  A finished step hands its result off to the next stage, so the stages of
+ * different instances overlap rather than each instance holding a {@link KeyedWorkQueue} worker
+ * for the whole of its provisioning.
+ * <br>
+ * The time spent in each stage, including waiting for the stage to have capacity, is recorded
+ * as sync.create.stage - the count of the managedkafka stage gives the provisioning throughput.
+ */
+@ApplicationScoped
+public class ProvisioningStages {
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    ExecutorService executorService;
+
+    /**
+     * 0 or less means unlimited
+     */
+    @ConfigProperty(name = "sync.create.stage-concurrency", defaultValue = "5")
+    int stageConcurrency;
+
+    private final Map<String, Executor> executors = new ConcurrentHashMap<>();
+
+    /**
+     * Start a pipeline with the given stage
+     */
+    public <T> CompletableFuture<T> start(String stage, Supplier<T> step) {
+        return then(CompletableFuture.completedFuture(null), stage, ignored -> step.get());
+    }
+
+    /**
+     * Hand off the result of the previous stage to the given stage.  The step is not run if the previous stage failed.
+     */
+    public <T, R> CompletableFuture<R> then(CompletableFuture<T> previous, String stage, Function<? super T, ? extends R> step) {
+        Executor executor = executors.computeIfAbsent(stage, s -> stageConcurrency > 0 ? new StageExecutor(executorService, stageConcurrency) : executorService);
+        return previous.thenCompose(value -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            CompletableFuture<R> result = CompletableFuture.supplyAsync(() -> step.apply(value), executor);
+            return result.whenComplete((r, e) -> {
+                sample.stop(Timer.builder("sync.create.stage")
+                        .tag("stage", stage)
+                        .description("The time spent in each stage of creating a ManagedKafka")
+                        .register(meterRegistry));
+                if (e != null) {
+                    ExecutorServiceProvider.countFailure(meterRegistry, e);
+                }
+            });
+        });
+    }
+
+    /**
+     * Runs at most a fixed number of tasks at once on the delegate, queuing the rest
+     * without holding a delegate thread
+     */
+    static class StageExecutor implements Executor {
+
+        private final Executor delegate;
+        private final int limit;
+        private final Deque<Runnable> queued = new ArrayDeque<>();
+        private int running;
+
+        StageExecutor(Executor delegate, int limit) {
+            this.delegate = delegate;
+            this.limit = limit;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            synchronized (this) {
+                if (running >= limit) {
+                    queued.add(command);
+                    return;
+                }
+                running++;
+            }
+            try {
+                delegate.execute(() -> runAll(command));
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    running--;
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Run the task, then any that were queued while it ran.  The tasks are the async
+         * steps of completable futures, which complete exceptionally rather than throw.
+         */
+        private void runAll(Runnable command) {
+            Runnable next = command;
+            while (next != null) {
+                next.run();
+                synchronized (this) {
+                    next = queued.poll();
+                    if (next == null) {
+                        running--;
+                    }
+                }
+            }
+        }
+
+    }
+
+}
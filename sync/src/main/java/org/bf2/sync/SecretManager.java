@@ -1,9 +1,11 @@
 package org.bf2.sync;
 
+import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
 import io.fabric8.kubernetes.api.model.Secret;
 import io.fabric8.kubernetes.api.model.SecretBuilder;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
 import org.bf2.common.OperandUtils;
 import org.bf2.operator.ManagedKafkaKeys.Annotations;
 import org.bf2.operator.resources.v1alpha1.ManagedKafka;
@@ -16,6 +18,7 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
 import java.math.BigInteger;
+import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -24,6 +27,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
@@ -43,6 +47,11 @@ public class SecretManager {
     @Inject
     InformerManager informerManager;
 
+    /* the last digest by instance id, with the secret data it was computed from */
+    final Map<String, Map.Entry<Map<String, String>, String>> remoteDigests = new ConcurrentHashMap<>();
+    /* the last digest by secret namespace/name, with the resourceVersion it was computed for */
+    private final Map<String, Map.Entry<String, String>> secretDigests = new ConcurrentHashMap<>();
+
     public static String kafkaClusterNamespace(ManagedKafka managedKafka) {
         return managedKafka.getMetadata().getNamespace();
     }
@@ -59,15 +68,59 @@ public class SecretManager {
 
     public boolean isMasterSecretChanged(ManagedKafka remote, ManagedKafka local){
         String localDigest = local.getMetadata().getAnnotations().get(Annotations.MASTER_SECRET_DIGEST);
-        String remoteDigest = buildDigest(buildSecretData(remote));
+        String remoteDigest = masterSecretDigest(remote);
         return !remoteDigest.equals(localDigest);
     }
 
+    /**
+     * The digest of the remote secret data.  The digest is only recomputed if the
+     * data differs from when it was last computed for the same instance id.
+     */
+    String masterSecretDigest(ManagedKafka remote) {
+        Map<String, String> data = buildSecretData(remote);
+        String id = remote.getId();
+        if (id == null) {
+            return buildDigest(data);
+        }
+        Map.Entry<Map<String, String>, String> cached = remoteDigests.get(id);
+        if (cached != null && cached.getKey().equals(data)) {
+            return cached.getValue();
+        }
+        String digest = buildDigest(data);
+        remoteDigests.put(id, Map.entry(data, digest));
+        return digest;
+    }
+
+    /**
+     * Forget the cached digests for the instance
+     */
+    public void evict(ManagedKafka managedKafka) {
+        if (managedKafka.getId() != null) {
+            remoteDigests.remove(managedKafka.getId());
+        }
+        secretDigests.remove(kafkaClusterNamespace(managedKafka) + "/" + OperandUtils.masterSecretName(managedKafka));
+    }
+
     public Secret buildSecret(ManagedKafka managedKafka) {
         Secret secret = buildSecret(OperandUtils.masterSecretName(managedKafka),
                             "Opaque",
                              managedKafka,
-                             buildSecretData(managedKafka));
+                             buildSecretData(managedKafka),
+                             masterSecretDigest(managedKafka));
+        return secret;
+    }
+
+    /**
+     * An informer transform for master secrets.  Once the digest is known from the annotation
+     * the data is not needed, as it is always rebuilt from the desired state.
+     */
+    public static Secret removeDigestedData(Secret secret) {
+        secret.getMetadata().setManagedFields(null);
+        if (secret.getMetadata().getAnnotations() != null
+                && secret.getMetadata().getAnnotations().containsKey(Annotations.MASTER_SECRET_DIGEST)) {
+            secret.setData(null);
+            secret.setStringData(null);
+        }
         return secret;
     }
 
@@ -76,7 +129,23 @@ public class SecretManager {
         OperandUtils.createOrUpdate(kubernetesClient.secrets(), secret);
     }
 
-    private Secret buildSecret(String name, String type, ManagedKafka managedKafka, Map<String, String> dataSource) {
+    /**
+     * Create the secret for a new ManagedKafka, only falling back to an update
+     * if it already exists
+     */
+    public void createSecret(ManagedKafka managedKafka, Secret secret) {
+        OperandUtils.setAsOwner(managedKafka, secret);
+        try {
+            kubernetesClient.secrets().inNamespace(secret.getMetadata().getNamespace()).create(secret);
+        } catch (KubernetesClientException e) {
+            if (e.getCode() != HttpURLConnection.HTTP_CONFLICT) {
+                throw e;
+            }
+            OperandUtils.createOrUpdate(kubernetesClient.secrets(), secret);
+        }
+    }
+
+    private Secret buildSecret(String name, String type, ManagedKafka managedKafka, Map<String, String> dataSource, String digest) {
         Secret current = cachedSecret(managedKafka, OperandUtils.masterSecretName(managedKafka));
         SecretBuilder builder = current != null ? new SecretBuilder(current) : new SecretBuilder();
 
@@ -89,6 +158,8 @@ public class SecretManager {
                 .editOrNewMetadata()
                     .withNamespace(kafkaClusterNamespace(managedKafka))
                     .withName(name)
+                    // saves decoding the data again to calculate the digest
+                    .addToAnnotations(Annotations.MASTER_SECRET_DIGEST, digest)
                     .withLabels(OperandUtils.getDefaultLabels())
                     .addToLabels(OperandUtils.getMasterSecretLabel())
                 .endMetadata()
@@ -99,7 +170,7 @@ public class SecretManager {
         return secret;
     }
 
-    private Map<String,String> buildSecretData(ManagedKafka managedKafka) {
+    Map<String,String> buildSecretData(ManagedKafka managedKafka) {
         // Add to
         Map<String, String> data = new HashMap<>();
         if (isKafkaOAuthClientPresent(managedKafka)) {
@@ -159,12 +230,38 @@ public class SecretManager {
 
     public void calculateMasterSecretDigest(ManagedKafka managedKafka, Secret secret) {
         var metadata = new ObjectMetaBuilder(managedKafka.getMetadata())
-                .addToAnnotations(Annotations.MASTER_SECRET_DIGEST, buildDigest(decode(secret.getData())))
+                .addToAnnotations(Annotations.MASTER_SECRET_DIGEST, secretDigest(secret))
                 .build();
 
         managedKafka.setMetadata(metadata);
     }
 
+    /**
+     * Use the digest from when the secret was built if possible.  Otherwise the digest is
+     * cached by resourceVersion, which only changes when the data may have changed.
+     */
+    String secretDigest(Secret secret) {
+        ObjectMeta meta = secret.getMetadata();
+        if (meta == null) {
+            return buildDigest(decode(secret.getData()));
+        }
+        if (meta.getAnnotations() != null && meta.getAnnotations().containsKey(Annotations.MASTER_SECRET_DIGEST)) {
+            return meta.getAnnotations().get(Annotations.MASTER_SECRET_DIGEST);
+        }
+        String resourceVersion = meta.getResourceVersion();
+        if (resourceVersion == null) {
+            return buildDigest(decode(secret.getData()));
+        }
+        String key = meta.getNamespace() + "/" + meta.getName();
+        Map.Entry<String, String> cached = secretDigests.get(key);
+        if (cached != null && cached.getKey().equals(resourceVersion)) {
+            return cached.getValue();
+        }
+        String digest = buildDigest(decode(secret.getData()));
+        secretDigests.put(key, Map.entry(resourceVersion, digest));
+        return digest;
+    }
+
     private static String encode(String value) {
         return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
     }
@@ -0,0 +1,38 @@
+package org.bf2.sync;
+
+/**
+ * The priority classes of work run by the {@link KeyedWorkQueue}, most urgent first.
+ * <br>
+ * The queue serves the classes with pending work in proportion to their weights, so
+ * user visible operations are run ahead of background work without starving it.
+ */
+public enum WorkPriority {
+    /** removing an instance, or telling the control plane it is gone */
+    DELETE(8),
+    /** creating an instance */
+    CREATE(8),
+    /** applying a spec change to an existing instance */
+    UPDATE(4),
+    /** pushing a changed status to the control plane */
+    STATUS(2),
+    /** the periodic resync of all statuses */
+    RESYNC(1);
+
+    private final int weight;
+
+    WorkPriority(int weight) {
+        this.weight = weight;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return the more urgent of this and other
+     */
+    public WorkPriority max(WorkPriority other) {
+        return other.ordinal() < ordinal() ? other : this;
+    }
+
+}
@@ -1,29 +1,54 @@
 package org.bf2.sync.controlplane;
 
 import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.fabric8.kubernetes.client.utils.Serialization;
 import io.micrometer.core.annotation.Counted;
+import io.quarkus.runtime.StartupEvent;
 import io.quarkus.scheduler.Scheduled;
 import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+import org.bf2.common.ResourceIndexers;
+import org.bf2.operator.ManagedKafkaKeys;
 import org.bf2.operator.resources.v1alpha1.ManagedKafka;
 import org.bf2.operator.resources.v1alpha1.ManagedKafkaAgent;
 import org.bf2.operator.resources.v1alpha1.ManagedKafkaAgentStatus;
 import org.bf2.operator.resources.v1alpha1.ManagedKafkaList;
 import org.bf2.operator.resources.v1alpha1.ManagedKafkaStatus;
+import org.bf2.sync.KeyedWorkQueue;
+import org.bf2.sync.WorkPriority;
 import org.bf2.sync.informer.LocalLookup;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 import org.jboss.logging.Logger;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -33,6 +58,9 @@ import static java.util.Objects.requireNonNullElse;
 public class ControlPlane {
 
     private static final ManagedKafkaStatus EMPTY_MANAGED_KAFKA_STATUS = new ManagedKafkaStatus();
+    /* distinguishes status pushes from reconciles, which are keyed by namespace/name, in the work queue */
+    private static final String STATUS_KEY_PREFIX = "status:";
+    private static final Function<ManagedKafka, List<String>> MANAGEDKAFKA_ID_INDEX = ResourceIndexers.indexer(ResourceIndexers.MANAGEDKAFKA_ID);
 
     @Inject
     Logger log;
@@ -45,16 +73,141 @@ public class ControlPlane {
     ControlPlaneRestClient controlPlaneClient;
 
     @Inject
-    ExecutorService executorService;
+    KeyedWorkQueue workQueue;
 
     @Inject
     LocalLookup localLookup;
 
+    @Inject
+    StatusPublisher statusPublisher;
+
+    @Inject
+    ControlPlaneCircuitBreaker breaker;
+
+    @ConfigProperty(name = "poll.delta.enabled", defaultValue = "false")
+    boolean deltaEnabled;
+
+    @ConfigProperty(name = "poll.full-interval", defaultValue = "5m")
+    Duration fullPollInterval;
+
+    @ConfigProperty(name = "poll.streaming.enabled", defaultValue = "false")
+    boolean streamingEnabled;
+
+    @ConfigProperty(name = "poll.conditional.enabled", defaultValue = "false")
+    boolean conditionalEnabled;
+
+    @ConfigProperty(name = "resync.full-interval", defaultValue = "10m")
+    Duration fullResyncInterval;
+
+    @ConfigProperty(name = "sync.snapshot.file")
+    Optional<String> snapshotFile;
+
     /* holds a copy of the remote desired state */
     private ConcurrentHashMap<String, ManagedKafka> desiredState = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, String> desiredFingerprints = new ConcurrentHashMap<>();
+    /* the desired state keys by managedkafka id */
+    private ConcurrentHashMap<String, Set<String>> desiredKeysById = new ConcurrentHashMap<>();
+    /* when the delete flag was first seen for each desired state */
+    private ConcurrentHashMap<String, Long> deleteRequestedNanos = new ConcurrentHashMap<>();
+    /* keys loaded from the snapshot that no poll has returned yet */
+    private Set<String> unconfirmedSnapshotKeys = ConcurrentHashMap.newKeySet();
+
+    /* the list revision of the last successful poll, null if a full poll is required */
+    private volatile String revision;
+    private volatile long lastFullPollNanos;
+    private volatile Long lastFullResyncNanos;
+
+    /* the etags of the last conditional responses, and when they were last requested unconditionally */
+    private volatile String kafkaClustersEtag;
+    private volatile long kafkaClustersUnconditionalNanos;
+    private volatile String agentEtag;
+    private volatile long agentUnconditionalNanos;
+
+    private volatile boolean snapshotDirty;
+
+    /**
+     * Add or replace the desired state, and compute its fingerprint
+     * @param remoteManagedKafka
+     */
+    public void addDesiredState(ManagedKafka remoteManagedKafka) {
+        String key = managedKafkaKey(remoteManagedKafka);
+        String fingerprint = desiredStateFingerprint(remoteManagedKafka);
+        desiredState.put(key, remoteManagedKafka);
+        MANAGEDKAFKA_ID_INDEX.apply(remoteManagedKafka)
+                .forEach(id -> desiredKeysById.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).add(key));
+        unconfirmedSnapshotKeys.remove(key);
+        if (!fingerprint.equals(desiredFingerprints.put(key, fingerprint))) {
+            snapshotDirty = true;
+        }
+        if (remoteManagedKafka.getSpec().isDeleted()) {
+            deleteRequestedNanos.putIfAbsent(key, System.nanoTime());
+        }
+    }
+
+    /**
+     * Load the desired state snapshot, if one is configured, so that there is
+     * desired state to reconcile against before the first poll completes.
+     */
+    void onStart(@Observes StartupEvent ev) {
+        loadSnapshot();
+    }
+
+    void loadSnapshot() {
+        if (snapshotFile.isEmpty()) {
+            return;
+        }
+        try {
+            List<ManagedKafka> snapshot = DesiredStateSnapshot.read(Paths.get(snapshotFile.get()));
+            if (snapshot == null) {
+                return;
+            }
+            // don't replace anything that a poll has already provided
+            snapshot.forEach(mk -> {
+                String key = managedKafkaKey(mk);
+                if (!desiredState.containsKey(key)) {
+                    addDesiredState(mk);
+                    unconfirmedSnapshotKeys.add(key);
+                }
+            });
+            snapshotDirty = false;
+            log.infof("Loaded %s ManagedKafkas from the desired state snapshot", snapshot.size());
+        } catch (IOException | RuntimeException e) {
+            log.warnf(e, "Could not load the desired state snapshot %s, it will be ignored", snapshotFile.get());
+        }
+    }
 
-    void addDesiredState(ManagedKafka remoteManagedKafka) {
-        desiredState.put(managedKafkaKey(remoteManagedKafka), remoteManagedKafka);
+    /**
+     * Called after each successful full poll - anything loaded from the snapshot
+     * that the poll did not return is no longer desired.
+     */
+    private void fullPollCompleted(long start) {
+        lastFullPollNanos = start;
+        if (unconfirmedSnapshotKeys.isEmpty()) {
+            return;
+        }
+        for (Iterator<String> iter = unconfirmedSnapshotKeys.iterator(); iter.hasNext();) {
+            String key = iter.next();
+            iter.remove();
+            removeDesiredState(key);
+            log.infof("Removed ManagedKafka %s from the desired state as it is not in the control plane", key);
+        }
+    }
+
+    /**
+     * Write the desired state snapshot, if one is configured and there have been changes
+     */
+    @Scheduled(every = "{sync.snapshot.interval}", concurrentExecution = ConcurrentExecution.SKIP)
+    void writeSnapshot() {
+        if (snapshotFile.isEmpty() || !snapshotDirty) {
+            return;
+        }
+        snapshotDirty = false;
+        try {
+            DesiredStateSnapshot.write(Paths.get(snapshotFile.get()), desiredState.values());
+        } catch (IOException | RuntimeException e) {
+            snapshotDirty = true;
+            log.warnf(e, "Could not write the desired state snapshot %s", snapshotFile.get());
+        }
     }
 
     /**
@@ -62,7 +215,74 @@ public class ControlPlane {
      * @param remoteManagedKafka
      */
     public void removeDesiredState(ManagedKafka remoteManagedKafka) {
-        desiredState.remove(managedKafkaKey(remoteManagedKafka));
+        removeDesiredState(managedKafkaKey(remoteManagedKafka));
+    }
+
+    private void removeDesiredState(String key) {
+        ManagedKafka removed = desiredState.remove(key);
+        if (removed != null) {
+            MANAGEDKAFKA_ID_INDEX.apply(removed).forEach(id -> desiredKeysById.computeIfPresent(id, (k, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            }));
+        }
+        deleteRequestedNanos.remove(key);
+        if (desiredFingerprints.remove(key) != null) {
+            snapshotDirty = true;
+        }
+    }
+
+    /**
+     * Get the {@link System#nanoTime()} of when the desired state was first seen
+     * as deleted, or null if it is not deleted.
+     */
+    public Long getDeleteRequestedNanos(ManagedKafka remoteManagedKafka) {
+        return deleteRequestedNanos.get(managedKafkaKey(remoteManagedKafka));
+    }
+
+    /**
+     * Get the fingerprint of the given remote desired state.  This will have been
+     * computed when the desired state was received, unless the given instance is
+     * not the one held as the desired state.
+     */
+    public String getDesiredStateFingerprint(ManagedKafka remoteManagedKafka) {
+        String key = managedKafkaKey(remoteManagedKafka);
+        String fingerprint = desiredFingerprints.get(key);
+        if (fingerprint != null && desiredState.get(key) == remoteManagedKafka) {
+            return fingerprint;
+        }
+        return desiredStateFingerprint(remoteManagedKafka);
+    }
+
+    /**
+     * A fingerprint of everything the sync applies from the remote desired state:
+     * the spec, including secret values, the labels, and the non-data plane annotations
+     */
+    public static String desiredStateFingerprint(ManagedKafka remoteManagedKafka) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("spec", remoteManagedKafka.getSpec());
+        Map<String, String> labels = remoteManagedKafka.getMetadata().getLabels();
+        state.put("labels", labels == null ? null : new TreeMap<>(labels));
+        Map<String, String> annotations = remoteManagedKafka.getMetadata().getAnnotations();
+        if (annotations != null) {
+            annotations = new TreeMap<>(annotations);
+            annotations.keySet().removeAll(ManagedKafkaKeys.Annotations.DATA_PLANE_ANNOTATIONS);
+        }
+        state.put("annotations", annotations);
+        return fingerprint(state);
+    }
+
+    /**
+     * A SHA-256 digest of the json form of the value
+     */
+    public static String fingerprint(Object value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(Serialization.asJson(value).getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     /**
@@ -83,6 +303,18 @@ public class ControlPlane {
         return desiredState.values();
     }
 
+    /**
+     * Get the known desired states with the given managedkafka id, using the
+     * {@link ResourceIndexers#MANAGEDKAFKA_ID} index rather than scanning them all.
+     */
+    public List<ManagedKafka> getDesiredStatesById(String id) {
+        Set<String> keys = desiredKeysById.get(id);
+        if (keys == null) {
+            return Collections.emptyList();
+        }
+        return keys.stream().map(desiredState::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
     /**
      * Get the string key that uniquely identifies this managed kafka placement
      * @param kafka
@@ -101,13 +333,13 @@ public class ControlPlane {
         if (oldAgent != null) {
             // this is an update event in which the resourceVersion has changed
             // it may be due to a spec change, but those happen infrequently
-            updateAgentStatus();
+            updateAgentStatus(WorkPriority.STATUS);
         }
     }
 
-    private void updateAgentStatus() {
+    private void updateAgentStatus(WorkPriority priority) {
         log.debug("Updating agent status");
-        executorService.execute(() -> {
+        workQueue.enqueue(STATUS_KEY_PREFIX + "agent", priority, () -> {
             ManagedKafkaAgent localManagedKafkaAgent = localLookup.getLocalManagedKafkaAgent();
             if (localManagedKafkaAgent == null) {
                 return;
@@ -119,7 +351,7 @@ public class ControlPlane {
                 // as they are not looking for this sync yet as a heartbeat
                 return;
             }
-            controlPlaneClient.updateStatus(id, status);
+            breaker.run(() -> controlPlaneClient.updateStatus(id, status));
         });
     }
 
@@ -133,23 +365,181 @@ public class ControlPlane {
      * remote call
      */
     public List<ManagedKafka> getKafkaClusters() {
-        ManagedKafkaList result = controlPlaneClient.getKafkaClusters(id);
+        long start = System.nanoTime();
+        ManagedKafkaList result = breaker.call(() -> controlPlaneClient.getKafkaClusters(id));
         result.getItems().forEach((mk)->addDesiredState(mk));
+        fullPollCompleted(start);
+        revision = listRevision(result);
         return result.getItems();
     }
 
+    /**
+     * Pass each ManagedKafka cluster from the control plane to the consumer as a blocking call.
+     * Also updates the cache of desired state.
+     * <br>
+     * If streaming is enabled, each item is passed along as it is read, rather than after
+     * the whole list has been read.
+     *
+     * @return false if conditional requests are enabled and nothing has been modified
+     * since the last call, in which case nothing is passed to the consumer
+     */
+    public boolean getKafkaClusters(Consumer<ManagedKafka> consumer) {
+        if (conditionalEnabled) {
+            return getKafkaClustersIfModified(consumer);
+        }
+        if (!streamingEnabled) {
+            getKafkaClusters().forEach(consumer);
+            return true;
+        }
+        long start = System.nanoTime();
+        try (InputStream stream = breaker.call(() -> controlPlaneClient.streamKafkaClusters(id))) {
+            readKafkaClusters(stream, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fullPollCompleted(start);
+        return true;
+    }
+
+    /**
+     * A conditional request, which will skip reading and processing the list if it
+     * has not been modified.  Periodically the request is made unconditionally so that
+     * everything is processed again.
+     */
+    private boolean getKafkaClustersIfModified(Consumer<ManagedKafka> consumer) {
+        long start = System.nanoTime();
+        String etag = start - kafkaClustersUnconditionalNanos < fullPollInterval.toNanos() ? kafkaClustersEtag : null;
+        Response response = breaker.call(() -> controlPlaneClient.getKafkaClustersIfNoneMatch(id, etag));
+        try {
+            if (response.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode()) {
+                lastFullPollNanos = start;
+                return false;
+            }
+            if (streamingEnabled) {
+                readKafkaClusters(response.readEntity(InputStream.class), consumer);
+            } else {
+                ManagedKafkaList result = response.readEntity(ManagedKafkaList.class);
+                result.getItems().forEach((mk)->addDesiredState(mk));
+                revision = listRevision(result);
+                result.getItems().forEach(consumer);
+            }
+            kafkaClustersEtag = response.getHeaderString(HttpHeaders.ETAG);
+            if (etag == null) {
+                kafkaClustersUnconditionalNanos = start;
+            }
+            fullPollCompleted(start);
+            return true;
+        } finally {
+            response.close();
+        }
+    }
+
+    private void readKafkaClusters(InputStream stream, Consumer<ManagedKafka> consumer) {
+        revision = ManagedKafkaListReader.read(stream, (mk) -> {
+            addDesiredState(mk);
+            consumer.accept(mk);
+        });
+    }
+
+    /**
+     * Get only the ManagedKafka clusters that have changed since the last poll
+     * as a blocking call.  Also updates the cache of desired state.
+     * <br>
+     * Returns null if delta polling is not enabled, a full poll is due, or the
+     * control plane could not satisfy the request - the caller should then use
+     * {@link #getKafkaClusters()} instead.
+     */
+    public List<ManagedKafka> getKafkaClusterChanges() {
+        String since = revision;
+        if (!deltaEnabled || since == null
+                || System.nanoTime() - lastFullPollNanos >= fullPollInterval.toNanos()) {
+            return null;
+        }
+        ManagedKafkaList result = null;
+        try {
+            result = breaker.call(() -> controlPlaneClient.getKafkaClusterChanges(id, since));
+        } catch (WebApplicationException e) {
+            // the revision may be too old, or the endpoint not supported
+            log.debugf("Could not get the changes since revision %s, status %s", since, e.getResponse().getStatus());
+        }
+        String newRevision = listRevision(result);
+        if (newRevision == null) {
+            revision = null;
+            return null;
+        }
+        result.getItems().forEach((mk)->addDesiredState(mk));
+        revision = newRevision;
+        return result.getItems();
+    }
+
+    /**
+     * Wait for the ManagedKafka clusters that change after the last poll as a blocking call.
+     * Also updates the cache of desired state.
+     * <br>
+     * Returns null if there has not yet been a poll to establish a revision, or the control
+     * plane does not support watching.  Otherwise returns the changes, which will be empty if
+     * there were none within the wait.
+     */
+    public List<ManagedKafka> watchKafkaClusterChanges(Duration wait) {
+        String since = revision;
+        if (since == null) {
+            return null;
+        }
+        ManagedKafkaList result = breaker.call(() -> controlPlaneClient.watchKafkaClusters(id, since, (int) wait.toSeconds()));
+        String newRevision = listRevision(result);
+        if (newRevision == null) {
+            return null;
+        }
+        result.getItems().forEach((mk)->addDesiredState(mk));
+        revision = newRevision;
+        return result.getItems();
+    }
+
+    static String listRevision(ManagedKafkaList list) {
+        if (list == null || list.getMetadata() == null) {
+            return null;
+        }
+        return list.getMetadata().getResourceVersion();
+    }
+
     /**
      * Get the ManagedKafkaAgent as a blocking call.
      */
     public ManagedKafkaAgent getManagedKafkaAgent() {
-        return controlPlaneClient.get(id);
+        return breaker.call(() -> controlPlaneClient.get(id));
+    }
+
+    /**
+     * Get the ManagedKafkaAgent as a blocking call, or null if conditional requests are
+     * enabled and it has not been modified since the last call.
+     */
+    public ManagedKafkaAgent getManagedKafkaAgentIfModified() {
+        if (!conditionalEnabled) {
+            return getManagedKafkaAgent();
+        }
+        long start = System.nanoTime();
+        String etag = start - agentUnconditionalNanos < fullPollInterval.toNanos() ? agentEtag : null;
+        Response response = breaker.call(() -> controlPlaneClient.getIfNoneMatch(id, etag));
+        try {
+            if (response.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode()) {
+                return null;
+            }
+            ManagedKafkaAgent result = response.readEntity(ManagedKafkaAgent.class);
+            agentEtag = response.getHeaderString(HttpHeaders.ETAG);
+            if (etag == null) {
+                agentUnconditionalNanos = start;
+            }
+            return result;
+        } finally {
+            response.close();
+        }
     }
 
     /**
      * Make an async call to update the status.
      */
     public void updateKafkaClusterStatus(String localMetaNamespaceKey, String clusterId) {
-        updateKafkaClusterStatus(() -> {
+        updateKafkaClusterStatus(clusterId, WorkPriority.STATUS, () -> {
             ManagedKafka kafka = localLookup.getLocalManagedKafka(localMetaNamespaceKey);
             if (kafka == null) {
                 return Collections.emptyMap();
@@ -160,18 +550,18 @@ public class ControlPlane {
     }
 
     /**
-     * Make an async call to update the status.
+     * Make an async call to update the status.  A pending update for the same key is replaced.
      *
      * A {@link Supplier} is used to defer the map construction.
      */
-    public void updateKafkaClusterStatus(Supplier<Map<String, ManagedKafkaStatus>> statusSupplier) {
+    public void updateKafkaClusterStatus(String key, WorkPriority priority, Supplier<Map<String, ManagedKafkaStatus>> statusSupplier) {
         log.debug("Updating managedkafka(s) status");
-        executorService.execute(() -> {
+        workQueue.enqueue(STATUS_KEY_PREFIX + key, priority, () -> {
             Map<String, ManagedKafkaStatus> status = statusSupplier.get();
             if (status.isEmpty()) {
                 return;
             }
-            controlPlaneClient.updateKafkaClustersStatus(id, status);
+            statusPublisher.publish(status);
         });
     }
 
@@ -199,18 +589,36 @@ public class ControlPlane {
     }
 
     /**
-     * On the resync interval, send everything
+     * On the resync interval, send everything that has changed since it was last sent.
+     * On the full resync interval, send everything.
      */
     @Counted(value = "sync.resync", description = "The number of resync calls") // no need to be timed as the actions are async
     @Scheduled(every = "{resync.interval}", concurrentExecution = ConcurrentExecution.SKIP)
     public void sendResync() {
+        if (breaker.isOpen()) {
+            // held statuses are sent when the circuit closes
+            log.debug("Skipping the resync as the control plane circuit is open");
+            return;
+        }
         log.debug("Updating status on resync interval");
-        updateKafkaClusterStatus(() -> {
-            return localLookup.getLocalManagedKafkas().stream().filter(mk -> mk.getId() != null)
+        updateKafkaClusterStatus("resync", WorkPriority.RESYNC, () -> {
+            // decided when the task runs, as a pending resync may be superseded by a later one
+            long now = System.nanoTime();
+            Long lastFull = lastFullResyncNanos;
+            boolean full = lastFull == null || now - lastFull >= fullResyncInterval.toNanos();
+            if (full) {
+                lastFullResyncNanos = now;
+            }
+            Map<String, ManagedKafkaStatus> statuses = localLookup.getLocalManagedKafkas().stream().filter(mk -> mk.getId() != null)
                     .collect(Collectors.toMap(ManagedKafka::getId,
                             (mk) -> requireNonNullElse(mk.getStatus(), EMPTY_MANAGED_KAFKA_STATUS)));
+            statusPublisher.retainSent(statuses.keySet());
+            if (!full) {
+                statuses.entrySet().removeIf(e -> statusPublisher.isSent(e.getKey(), e.getValue()));
+            }
+            return statuses;
         });
-        updateAgentStatus();
+        updateAgentStatus(WorkPriority.RESYNC);
     }
 
 }
@@ -11,6 +11,7 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 
 import java.util.Map;
@@ -34,6 +35,28 @@ public interface ControlPlaneApi {
     @Produces(MediaType.APPLICATION_JSON)
     ManagedKafkaList getKafkaClusters(@PathParam("id") String id);
 
+    /**
+     * Get only the ManagedKafkas that have been added or modified after the given revision.
+     * The revision is the list resourceVersion returned by a prior call to this method or to
+     * {@link #getKafkaClusters(String)}.
+     * <br>
+     * Entries that have been fully removed are not reported - that still requires a full list.
+     */
+    @GET
+    @Path("/{id}/kafkas/changes")
+    @Produces(MediaType.APPLICATION_JSON)
+    ManagedKafkaList getKafkaClusterChanges(@PathParam("id") String id, @QueryParam("since") String revision);
+
+    /**
+     * A long-poll form of {@link #getKafkaClusterChanges(String, String)}.  The response
+     * is held until there are changes after the given revision, or until the wait in
+     * seconds has elapsed - in which case the response has no items.
+     */
+    @GET
+    @Path("/{id}/kafkas/watch")
+    @Produces(MediaType.APPLICATION_JSON)
+    ManagedKafkaList watchKafkaClusters(@PathParam("id") String id, @QueryParam("since") String revision, @QueryParam("wait") int waitSeconds);
+
     @PUT
     @Path("/{id}/kafkas/status")
     @Consumes(MediaType.APPLICATION_JSON)
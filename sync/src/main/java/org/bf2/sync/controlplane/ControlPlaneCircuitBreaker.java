@@ -0,0 +1,198 @@
+package org.bf2.sync.controlplane;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.WebApplicationException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Guards calls to the control plane, so that while it is down or failing we don't keep
+ * making calls that are expected to fail.
+ * <br>
+ * After failure-threshold consecutive failures the circuit opens, and calls fail fast with an
+ * {@link OpenException} for a jittered, exponentially increasing backoff.  Then a single call
+ * is let through as a probe - half-open - which closes the circuit if it succeeds, or opens it
+ * again with a longer backoff.
+ * <br>
+ * Client errors (4xx) mean that the control plane is responding, so they don't count as failures.
+ * An {@link Error} does count as a failure.
+ */
+@ApplicationScoped
+public class ControlPlaneCircuitBreaker {
+
+    private static final String NAME = "sync.control-plane.breaker";
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    public static class OpenException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        OpenException() {
+            super("The control plane circuit is open");
+        }
+
+    }
+
+    @Inject
+    Logger log;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "control-plane.breaker.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "control-plane.breaker.failure-threshold", defaultValue = "5")
+    int failureThreshold;
+
+    @ConfigProperty(name = "control-plane.breaker.backoff.initial", defaultValue = "5s")
+    Duration initialBackoff;
+
+    @ConfigProperty(name = "control-plane.breaker.backoff.max", defaultValue = "5m")
+    Duration maxBackoff;
+
+    private final List<Runnable> closeListeners = new CopyOnWriteArrayList<>();
+
+    private State state = State.CLOSED;
+    private int failures;
+    private int opens;
+    private long retryAtNanos;
+
+    @PostConstruct
+    void init() {
+        meterRegistry.gauge(NAME + ".state", this, b -> b.getState().ordinal());
+    }
+
+    /**
+     * Make the call, if the circuit allows it
+     * @throws OpenException if the circuit is open
+     */
+    public <T> T call(Supplier<T> supplier) {
+        if (!enabled) {
+            return supplier.get();
+        }
+        acquire();
+        T result;
+        try {
+            result = supplier.get();
+        } catch (RuntimeException e) {
+            if (isFailure(e)) {
+                failed();
+            } else {
+                succeeded();
+            }
+            throw e;
+        } catch (Error e) {
+            // the probe slot must still be released
+            failed();
+            throw e;
+        }
+        succeeded();
+        return result;
+    }
+
+    /**
+     * @see #call(Supplier)
+     */
+    public void run(Runnable runnable) {
+        call(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Add a listener to be called, on the thread that closes the circuit, whenever the circuit closes
+     */
+    public void onClose(Runnable listener) {
+        closeListeners.add(listener);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public boolean isOpen() {
+        return getState() != State.CLOSED;
+    }
+
+    private synchronized void acquire() {
+        switch (state) {
+        case CLOSED:
+            return;
+        case OPEN:
+            if (System.nanoTime() - retryAtNanos >= 0) {
+                // let this call through as the probe
+                transition(State.HALF_OPEN);
+                return;
+            }
+            throw new OpenException();
+        default:
+            // a probe is already in flight
+            throw new OpenException();
+        }
+    }
+
+    private synchronized void failed() {
+        failures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+            opens++;
+            long backoff = backoff(opens, initialBackoff.toNanos(), maxBackoff.toNanos());
+            // full jitter over the upper half, so that many syncs don't probe in lockstep
+            long jittered = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+            retryAtNanos = System.nanoTime() + jittered;
+            transition(State.OPEN);
+            log.warnf("Control plane circuit opened after %s consecutive failures, the next attempt will be in %s ms", failures, jittered / 1_000_000);
+        }
+    }
+
+    private void succeeded() {
+        synchronized (this) {
+            failures = 0;
+            if (state == State.CLOSED) {
+                return;
+            }
+            opens = 0;
+            transition(State.CLOSED);
+        }
+        log.info("Control plane circuit closed");
+        closeListeners.forEach(Runnable::run);
+    }
+
+    private void transition(State to) {
+        state = to;
+        Counter.builder(NAME + ".transitions")
+                .tag("state", to.name().toLowerCase())
+                .description("The number of control plane circuit state transitions")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    static long backoff(int opens, long initialNanos, long maxNanos) {
+        return Math.min(maxNanos, initialNanos << Math.min(opens - 1, 20));
+    }
+
+    static boolean isFailure(RuntimeException e) {
+        if (e instanceof WebApplicationException) {
+            return ((WebApplicationException) e).getResponse().getStatus() >= 500;
+        }
+        return !(e instanceof OpenException);
+    }
+
+}
@@ -0,0 +1,129 @@
+package org.bf2.sync.controlplane;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import javax.ws.rs.core.HttpHeaders;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records per endpoint metrics for the control plane rest client - the latency by
+ * status, from which the 304 ratio may be derived, and the bytes sent and received
+ * on the wire.
+ * <br>
+ * Also marks request bodies for gzip encoding if control-plane.gzip-requests is set.
+ */
+public class ControlPlaneClientFilter implements ClientRequestFilter, ClientResponseFilter {
+
+    static final String INVOKED_METHOD = "org.eclipse.microprofile.rest.client.invokedMethod";
+    private static final String START = ControlPlaneClientFilter.class.getName() + ".start";
+    private static final String NAME = "sync.control-plane";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean gzipRequests;
+
+    public ControlPlaneClientFilter() {
+        this(Metrics.globalRegistry, ConfigProvider.getConfig().getOptionalValue("control-plane.gzip-requests", Boolean.class).orElse(false));
+    }
+
+    ControlPlaneClientFilter(MeterRegistry meterRegistry, boolean gzipRequests) {
+        this.meterRegistry = meterRegistry;
+        this.gzipRequests = gzipRequests;
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext) throws IOException {
+        requestContext.setProperty(START, System.nanoTime());
+        if (requestContext.hasEntity()) {
+            if (gzipRequests) {
+                requestContext.getHeaders().putSingle(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            Counter sent = bytes(endpoint(requestContext), "sent");
+            requestContext.setEntityStream(new FilterOutputStream(requestContext.getEntityStream()) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    sent.increment();
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    sent.increment(len);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) throws IOException {
+        String endpoint = endpoint(requestContext);
+        Object start = requestContext.getProperty(START);
+        if (start instanceof Long) {
+            Timer.builder(NAME + ".request")
+                    .tag("endpoint", endpoint)
+                    .tag("status", String.valueOf(responseContext.getStatus()))
+                    .description("The time spent on control plane requests")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - (Long) start, TimeUnit.NANOSECONDS);
+        }
+        if (responseContext.hasEntity()) {
+            // still compressed, as decoding happens later in a reader interceptor
+            Counter received = bytes(endpoint, "received");
+            responseContext.setEntityStream(new FilterInputStream(responseContext.getEntityStream()) {
+                @Override
+                public int read() throws IOException {
+                    int result = in.read();
+                    if (result >= 0) {
+                        received.increment();
+                    }
+                    return result;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int result = in.read(b, off, len);
+                    if (result > 0) {
+                        received.increment(result);
+                    }
+                    return result;
+                }
+            });
+        }
+    }
+
+    private Counter bytes(String endpoint, String direction) {
+        return Counter.builder(NAME + ".bytes")
+                .tag("endpoint", endpoint)
+                .tag("direction", direction)
+                .description("The bytes transferred with the control plane")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The rest client interface method, which resteasy sets as the invokedMethod property before
+     * the registered filters run.  Only requests not made through the interface fall back to the http method.
+     */
+    static String endpoint(ClientRequestContext requestContext) {
+        Object method = requestContext.getProperty(INVOKED_METHOD);
+        if (method instanceof Method) {
+            return ((Method) method).getName();
+        }
+        return requestContext.getMethod();
+    }
+
+}
@@ -1,13 +1,57 @@
 package org.bf2.sync.controlplane;
 
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import org.jboss.resteasy.plugins.interceptors.AcceptEncodingGZIPFilter;
+import org.jboss.resteasy.plugins.interceptors.GZIPDecodingInterceptor;
+import org.jboss.resteasy.plugins.interceptors.GZIPEncodingInterceptor;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import java.io.InputStream;
 
 @ApplicationScoped
 @RegisterRestClient(configKey = "control-plane")
+@RegisterProvider(AcceptEncodingGZIPFilter.class)
+@RegisterProvider(GZIPDecodingInterceptor.class)
+@RegisterProvider(GZIPEncodingInterceptor.class)
+@RegisterProvider(ControlPlaneClientFilter.class)
 @Path(ControlPlaneApi.BASE_PATH)
 public interface ControlPlaneRestClient extends ControlPlaneApi {
 
+    /**
+     * The same as {@link #getKafkaClusters(String)}, but with the raw response
+     * so that it may be read incrementally.  The caller must close the stream.
+     */
+    @GET
+    @Path("/{id}/kafkas")
+    @Produces(MediaType.APPLICATION_JSON)
+    InputStream streamKafkaClusters(@PathParam("id") String id);
+
+    /**
+     * The same as {@link #getKafkaClusters(String)}, but the response will be a 304
+     * without an entity if the etag still matches.  The caller must close the response.
+     */
+    @GET
+    @Path("/{id}/kafkas")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response getKafkaClustersIfNoneMatch(@PathParam("id") String id, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String etag);
+
+    /**
+     * The same as {@link #get(String)}, but the response will be a 304
+     * without an entity if the etag still matches.  The caller must close the response.
+     */
+    @GET
+    @Path("/{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response getIfNoneMatch(@PathParam("id") String id, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String etag);
+
 }
@@ -0,0 +1,122 @@
+package org.bf2.sync.controlplane;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Long-polls the control plane for ManagedKafka changes, so that they are seen
+ * without waiting for the next poll.
+ * <br>
+ * Polling still happens as usual - it is the fallback for whenever the watch is
+ * broken, and the only way that removals are seen.
+ */
+@ApplicationScoped
+public class ControlPlaneWatch {
+
+    @Inject
+    Logger log;
+
+    @Inject
+    ControlPlane controlPlane;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "watch.enabled", defaultValue = "false")
+    boolean enabled;
+
+    /* should be less than the rest client read timeout */
+    @ConfigProperty(name = "watch.wait", defaultValue = "8s")
+    Duration wait;
+
+    @ConfigProperty(name = "watch.retry-interval", defaultValue = "30s")
+    Duration retryInterval;
+
+    private volatile boolean connected;
+    private Thread thread;
+
+    /**
+     * Start watching, if enabled, passing each changed ManagedKafka to the consumer
+     */
+    public synchronized void start(Consumer<ManagedKafka> consumer) {
+        if (!enabled || thread != null) {
+            return;
+        }
+        meterRegistry.gauge("sync.watch.connected", this, w -> w.connected ? 1 : 0);
+        thread = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (!watchOnce(consumer)) {
+                    pause(retryInterval);
+                }
+            }
+        }, "sync.watch");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    /**
+     * @return false if the watch could not be performed and should be retried later
+     */
+    boolean watchOnce(Consumer<ManagedKafka> consumer) {
+        List<ManagedKafka> changes;
+        try {
+            changes = controlPlane.watchKafkaClusterChanges(wait);
+        } catch (RuntimeException e) {
+            if (connected) {
+                log.warnf(e, "Watch of the control plane failed, relying on polling until it can be retried");
+            }
+            connected = false;
+            return false;
+        }
+        if (changes == null) {
+            // not yet polled, or not supported by the control plane
+            connected = false;
+            return false;
+        }
+        if (!connected) {
+            log.info("Watching the control plane for changes");
+            connected = true;
+        }
+        for (ManagedKafka managedKafka : changes) {
+            try {
+                consumer.accept(managedKafka);
+            } catch (RuntimeException e) {
+                // the next poll will see it again
+                log.warnf(e, "Could not process the change to ManagedKafka %s", managedKafka.getId());
+            }
+        }
+        return true;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    private static void pause(Duration duration) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package org.bf2.sync.controlplane;
+
+import io.fabric8.kubernetes.client.utils.Serialization;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaList;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads and writes a file copy of the desired state.
+ * <br>
+ * The format is a magic number, the CRC32 checksum of the payload, then the payload -
+ * a gzipped json ManagedKafkaList.  Writes go to a temporary file that is then
+ * atomically renamed, so a reader will only see a complete snapshot.
+ * <br>
+ * The desired state includes secret values, so the file is only readable by its owner.
+ */
+final class DesiredStateSnapshot {
+
+    private static final int MAGIC = 0x6b667373; // kfss
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private DesiredStateSnapshot() {
+    }
+
+    static void write(Path path, Collection<ManagedKafka> desiredState) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(payload)) {
+            Serialization.jsonMapper().writeValue(gzip, new ManagedKafkaList(desiredState));
+        }
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        Path tmp = path.resolveSibling(path.getFileName() + TMP_SUFFIX);
+        Files.deleteIfExists(tmp);
+        try {
+            Files.createFile(tmp, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            // not a posix file system
+        }
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmp))) {
+            out.writeInt(MAGIC);
+            out.writeLong(crc.getValue());
+            out.write(bytes);
+        }
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return the snapshot contents, or null if there is no snapshot
+     * @throws IOException if the snapshot cannot be read or is corrupt
+     */
+    static List<ManagedKafka> read(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        byte[] bytes;
+        long checksum;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a desired state snapshot " + path);
+            }
+            checksum = in.readLong();
+            bytes = in.readAllBytes();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        if (crc.getValue() != checksum) {
+            throw new IOException("Checksum mismatch for desired state snapshot " + path);
+        }
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return Serialization.jsonMapper().readValue(gzip, ManagedKafkaList.class).getItems();
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package org.bf2.sync.controlplane;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.kubernetes.api.model.ListMeta;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Reads a serialized ManagedKafkaList one item at a time, so that the full
+ * list never needs to be held in memory.
+ */
+final class ManagedKafkaListReader {
+
+    private ManagedKafkaListReader() {
+    }
+
+    /**
+     * Pass each item of the list to the consumer as it is read
+     *
+     * @return the list resourceVersion, or null if there is none
+     */
+    static String read(InputStream stream, Consumer<ManagedKafka> consumer) throws IOException {
+        ObjectMapper mapper = Serialization.jsonMapper();
+        String revision = null;
+        try (JsonParser parser = mapper.getFactory().createParser(stream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a ManagedKafkaList object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("items".equals(field) && token == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        consumer.accept(mapper.readValue(parser, ManagedKafka.class));
+                    }
+                } else if ("metadata".equals(field) && token == JsonToken.START_OBJECT) {
+                    revision = mapper.readValue(parser, ListMeta.class).getResourceVersion();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return revision;
+    }
+
+}
@@ -1,5 +1,6 @@
 package org.bf2.sync.controlplane;
 
+import io.fabric8.kubernetes.api.model.ListMetaBuilder;
 import io.quarkus.arc.profile.UnlessBuildProfile;
 import io.quarkus.scheduler.Scheduled;
 import org.bf2.common.ConditionUtils;
@@ -17,6 +18,7 @@ import org.jboss.logging.Logger;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -27,10 +29,14 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 @ApplicationScoped
 @UnlessBuildProfile("prod")
@@ -46,9 +52,15 @@ public class MockControlPlane implements ControlPlaneApi {
     @ConfigProperty(name="sync.mock-control-plane.max", defaultValue = "3")
     int maxKafkas;
 
+    // added to each call made by the sync, to simulate a remote control plane
+    @ConfigProperty(name="sync.mock-control-plane.latency", defaultValue = "0s")
+    Duration latency;
+
     // current active clusters
     Map<String, ManagedKafka> kafkas = new ConcurrentHashMap<String, ManagedKafka>();
     Map<String, ManagedKafkaStatus> kafkaStatus = new ConcurrentHashMap<String, ManagedKafkaStatus>();
+    // the revision at which each active cluster was last modified
+    Map<String, Long> kafkaRevisions = new ConcurrentHashMap<String, Long>();
 
     @Inject
     ManagedKafkaAgentSync agentSync;
@@ -59,6 +71,8 @@ public class MockControlPlane implements ControlPlaneApi {
     // Unique Id for the clusters
     private AtomicInteger clusterIdGenerator = new AtomicInteger(1);
 
+    private AtomicLong revisionGenerator = new AtomicLong();
+
     @Scheduled(every = "{poll.interval}")
     void loop() {
 
@@ -76,7 +90,7 @@ public class MockControlPlane implements ControlPlaneApi {
             for (int i = 0; i < maxKafkas; i++) {
                 ManagedKafka k = ManagedKafka.getDummyInstance(this.clusterIdGenerator.getAndIncrement());
                 log.infof("control plane::marking %s for addition", k.getId());
-                this.kafkas.put(k.getId(), k);
+                putCluster(k);
             }
         }
 
@@ -98,7 +112,7 @@ public class MockControlPlane implements ControlPlaneApi {
         if (this.kafkas.size() < maxKafkas && random.nextBoolean()) {
             ManagedKafka k = ManagedKafka.getDummyInstance(this.clusterIdGenerator.getAndIncrement());
             log.infof("control plane:: creating a new cluster %s ", k.getId());
-            this.kafkas.put(k.getId(), k);
+            putCluster(k);
         }
 
         log.info("--------------------------------------------------");
@@ -108,16 +122,41 @@ public class MockControlPlane implements ControlPlaneApi {
         log.info("--------------------------------------------------");
     }
 
+    private void putCluster(ManagedKafka mk) {
+        this.kafkas.put(mk.getId(), mk);
+        revise(mk.getId());
+    }
+
+    private void revise(String id) {
+        synchronized (revisionGenerator) {
+            this.kafkaRevisions.put(id, revisionGenerator.incrementAndGet());
+            // wake any watches
+            revisionGenerator.notifyAll();
+        }
+    }
+
     private void markForDeletion(String id) {
         ManagedKafka mk = this.kafkas.get(id);
         if (mk != null && !mk.isMarkedForDeletion()) {
             log.infof("control plane:: marking cluster %s for deletion", mk.getId());
             mk.getSpec().setDeleted(true);
+            revise(id);
         } else {
             log.infof("control plane:: Is cluster %s already deleted?", id);
         }
     }
 
+    private void simulateLatency() {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private boolean isDeleted(ManagedKafkaStatus status) {
         if (status == null || status.getConditions() == null) {
             return false;
@@ -129,18 +168,70 @@ public class MockControlPlane implements ControlPlaneApi {
     @Override
     public void updateStatus(@PathParam("id") String id, ManagedKafkaAgentStatus status){
         log.infof("control plane::updateAgentStatus (capacity) <- Received %s", status);
+        simulateLatency();
         this.agentStatus = status;
     }
 
     @Override
     public ManagedKafkaList getKafkaClusters(String id) {
         log.info("control plane::getKafkaClusters <- Received");
-        return new ManagedKafkaList(kafkas.values());
+        simulateLatency();
+        // read the revision first so that a concurrent modification is seen again by the next delta
+        String revision = String.valueOf(revisionGenerator.get());
+        return withRevision(new ManagedKafkaList(kafkas.values()), revision);
+    }
+
+    @Override
+    public ManagedKafkaList getKafkaClusterChanges(String id, String since) {
+        log.infof("control plane::getKafkaClusterChanges <- Received since %s", since);
+        simulateLatency();
+        return changesSince(parseRevision(since));
+    }
+
+    @Override
+    public ManagedKafkaList watchKafkaClusters(String id, String since, int waitSeconds) {
+        log.infof("control plane::watchKafkaClusters <- Received since %s", since);
+        long sinceRevision = parseRevision(since);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Math.max(0, waitSeconds));
+        synchronized (revisionGenerator) {
+            long remaining;
+            while (revisionGenerator.get() <= sinceRevision && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(revisionGenerator, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        return changesSince(sinceRevision);
+    }
+
+    private static long parseRevision(String revision) {
+        try {
+            return Long.parseLong(revision);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid revision " + revision);
+        }
+    }
+
+    private ManagedKafkaList changesSince(long sinceRevision) {
+        String revision = String.valueOf(revisionGenerator.get());
+        return withRevision(new ManagedKafkaList(kafkas.values()
+                .stream()
+                .filter(mk -> kafkaRevisions.getOrDefault(mk.getId(), Long.MAX_VALUE) > sinceRevision)
+                .collect(Collectors.toList())), revision);
+    }
+
+    private static ManagedKafkaList withRevision(ManagedKafkaList list, String revision) {
+        list.setMetadata(new ListMetaBuilder().withResourceVersion(revision).build());
+        return list;
     }
 
     @Override
     public void updateKafkaClustersStatus(@PathParam(value = "id") String id, Map<String, ManagedKafkaStatus> statusMap) {
         log.infof("control plane:: updateKafkaClustersStatus <- Received from cluster %s, %s", id, statusMap);
+        simulateLatency();
 
         // clean up the deleted
         statusMap.forEach((k, v) -> {
@@ -151,6 +242,7 @@ public class MockControlPlane implements ControlPlaneApi {
                     log.infof("control plane:: Removing cluster %s as it is deleted", mk.getId());
                     this.kafkas.remove(k);
                     this.kafkaStatus.remove(k);
+                    this.kafkaRevisions.remove(k);
                 } else {
                     this.kafkaStatus.put(k, v);
                 }
@@ -160,6 +252,7 @@ public class MockControlPlane implements ControlPlaneApi {
 
     @Override
     public ManagedKafkaAgent get(String id) {
+        simulateLatency();
         return agent;
     }
 
@@ -168,7 +261,7 @@ public class MockControlPlane implements ControlPlaneApi {
     @Produces(MediaType.APPLICATION_JSON)
     @Consumes(MediaType.APPLICATION_JSON)
     public void createCluster(ManagedKafka mk) {
-        this.kafkas.put(mk.getId(), mk);
+        putCluster(mk);
         log.infof("control plane:: Received request to create/update ManagedKafka %s", mk.getId());
     }
 
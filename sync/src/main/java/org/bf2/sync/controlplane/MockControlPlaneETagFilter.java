@@ -0,0 +1,42 @@
+package org.bf2.sync.controlplane;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Adds ETags to the {@link MockControlPlane} GET responses, and replaces the response
+ * with a 304 if it matches the If-None-Match of the request.
+ */
+@Provider
+public class MockControlPlaneETagFilter implements ContainerResponseFilter {
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        if (!HttpMethod.GET.equals(requestContext.getMethod())
+                || resourceInfo == null
+                || resourceInfo.getResourceClass() != MockControlPlane.class
+                || responseContext.getStatus() != Response.Status.OK.getStatusCode()
+                || !responseContext.hasEntity()) {
+            return;
+        }
+        EntityTag etag = new EntityTag(ControlPlane.fingerprint(responseContext.getEntity()));
+        responseContext.getHeaders().putSingle(HttpHeaders.ETAG, etag);
+        String ifNoneMatch = requestContext.getHeaderString(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && ifNoneMatch.equals(etag.toString())) {
+            responseContext.setStatus(Response.Status.NOT_MODIFIED.getStatusCode());
+            responseContext.setEntity(null);
+        }
+    }
+
+}
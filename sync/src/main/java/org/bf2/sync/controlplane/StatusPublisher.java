@@ -0,0 +1,234 @@
+package org.bf2.sync.controlplane;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaStatus;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.jboss.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Coalesces ManagedKafka status updates so that the control plane receives a single
+ * map of the latest status per id for each window, rather than a call per change.
+ * <br>
+ * A flush happens when the window elapses after the first buffered status, or
+ * as soon as the buffer reaches the max batch size.
+ * <br>
+ * A fingerprint of the last status successfully sent for each id is kept, so that
+ * callers may skip sending what the control plane already has.
+ * <br>
+ * While the {@link ControlPlaneCircuitBreaker} is open statuses are held, latest wins, up
+ * to held.max-size ids.  They are sent as a single batch when the circuit closes, less any
+ * id that has since been sent successfully - such as by the probe that closed the circuit.
+ */
+@ApplicationScoped
+public class StatusPublisher {
+
+    private static final String NAME = "sync.status.batch";
+
+    @Inject
+    Logger log;
+
+    @ConfigProperty(name = "cluster.id")
+    String id;
+
+    @Inject
+    @RestClient
+    ControlPlaneRestClient controlPlaneClient;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "status.batch.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "status.batch.window", defaultValue = "2s")
+    Duration window;
+
+    @ConfigProperty(name = "status.batch.max-size", defaultValue = "500")
+    int maxSize;
+
+    @Inject
+    ControlPlaneCircuitBreaker breaker;
+
+    @ConfigProperty(name = "status.held.max-size", defaultValue = "1000")
+    int maxHeld;
+
+    private final Map<String, String> sentFingerprints = new ConcurrentHashMap<>();
+
+    private Map<String, ManagedKafkaStatus> buffer = new LinkedHashMap<>();
+    private boolean flushScheduled;
+
+    private Map<String, ManagedKafkaStatus> held = new LinkedHashMap<>();
+    /* sends hold the read lock, so that the held statuses are taken only after in-flight sends have completed */
+    private final ReadWriteLock sending = new ReentrantReadWriteLock();
+
+    private ScheduledExecutorService flusher;
+    private DistributionSummary batchSize;
+    private Timer flushTimer;
+    private Counter heldCounter;
+    private Counter droppedCounter;
+
+    @PostConstruct
+    void init() {
+        flusher = Executors.newSingleThreadScheduledExecutor();
+        batchSize = DistributionSummary.builder(NAME + ".size")
+                .description("The number of statuses sent in each batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        flushTimer = Timer.builder(NAME + ".flush")
+                .description("The time spent sending each batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        heldCounter = Counter.builder("sync.status.held")
+                .description("The number of statuses held while the control plane circuit is open")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("sync.status.dropped")
+                .description("The number of statuses dropped as too many were held")
+                .register(meterRegistry);
+        breaker.onClose(() -> flusher.execute(this::flushHeld));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+    }
+
+    /**
+     * Send the statuses to the control plane.  If batching is enabled this will
+     * return without waiting for them to be sent.
+     */
+    public void publish(Map<String, ManagedKafkaStatus> status) {
+        if (!enabled) {
+            send(status);
+            return;
+        }
+        synchronized (this) {
+            buffer.putAll(status);
+            if (buffer.size() >= maxSize) {
+                flusher.execute(this::flush);
+            } else if (!flushScheduled) {
+                flusher.schedule(this::flush, window.toMillis(), TimeUnit.MILLISECONDS);
+            } else {
+                return;
+            }
+            flushScheduled = true;
+        }
+    }
+
+    void flush() {
+        Map<String, ManagedKafkaStatus> batch;
+        synchronized (this) {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            batch = buffer;
+            buffer = new LinkedHashMap<>();
+            flushScheduled = false;
+        }
+        batchSize.record(batch.size());
+        long start = System.nanoTime();
+        try {
+            send(batch);
+        } catch (RuntimeException e) {
+            // the statuses will be sent again on the next resync
+            log.warnf(e, "Could not send a batch of %s statuses", batch.size());
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void send(Map<String, ManagedKafkaStatus> status) {
+        sending.readLock().lock();
+        try {
+            try {
+                breaker.run(() -> controlPlaneClient.updateKafkaClustersStatus(id, status));
+            } catch (RuntimeException e) {
+                if (!breaker.isOpen()) {
+                    throw e;
+                }
+                hold(status);
+                return;
+            }
+            sent(status);
+        } finally {
+            sending.readLock().unlock();
+        }
+    }
+
+    private synchronized void hold(Map<String, ManagedKafkaStatus> status) {
+        status.forEach((k, v) -> {
+            if (held.size() < maxHeld || held.containsKey(k)) {
+                held.put(k, v);
+                heldCounter.increment();
+            } else {
+                // the resync after the circuit closes will send it
+                droppedCounter.increment();
+            }
+        });
+    }
+
+    void flushHeld() {
+        Map<String, ManagedKafkaStatus> batch;
+        sending.writeLock().lock();
+        try {
+            synchronized (this) {
+                if (held.isEmpty()) {
+                    return;
+                }
+                batch = held;
+                held = new LinkedHashMap<>();
+            }
+        } finally {
+            sending.writeLock().unlock();
+        }
+        log.infof("Sending %s statuses held while the control plane circuit was open", batch.size());
+        try {
+            send(batch);
+        } catch (RuntimeException e) {
+            log.warnf(e, "Could not send %s held statuses", batch.size());
+        }
+    }
+
+    private void sent(Map<String, ManagedKafkaStatus> status) {
+        synchronized (this) {
+            // anything held is older than what was just sent
+            held.keySet().removeAll(status.keySet());
+        }
+        status.forEach((k, v) -> sentFingerprints.put(k, ControlPlane.fingerprint(v)));
+    }
+
+    /**
+     * Return true if the status is the same as the last one successfully sent for the id
+     */
+    public boolean isSent(String id, ManagedKafkaStatus status) {
+        String fingerprint = sentFingerprints.get(id);
+        return fingerprint != null && fingerprint.equals(ControlPlane.fingerprint(status));
+    }
+
+    /**
+     * Forget the sent status of any id not in the given collection
+     */
+    public void retainSent(Collection<String> ids) {
+        sentFingerprints.keySet().retainAll(ids);
+    }
+
+}
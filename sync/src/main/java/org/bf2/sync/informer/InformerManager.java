@@ -1,18 +1,19 @@
 package org.bf2.sync.informer;
 
+import io.fabric8.kubernetes.api.model.Namespace;
 import io.fabric8.kubernetes.api.model.Secret;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.informers.cache.Cache;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.quarkus.runtime.Startup;
-import org.bf2.common.ConditionUtils;
 import org.bf2.common.OperandUtils;
 import org.bf2.common.ResourceInformer;
 import org.bf2.common.ResourceInformerFactory;
 import org.bf2.operator.resources.v1alpha1.ManagedKafka;
 import org.bf2.operator.resources.v1alpha1.ManagedKafkaAgent;
-import org.bf2.operator.resources.v1alpha1.ManagedKafkaCondition;
-import org.bf2.operator.resources.v1alpha1.ManagedKafkaCondition.Type;
+import org.bf2.sync.DeletionTracker;
+import org.bf2.sync.ManagedKafkaSync;
+import org.bf2.sync.SecretManager;
 import org.bf2.sync.controlplane.ControlPlane;
 
 import javax.annotation.PostConstruct;
@@ -37,6 +38,9 @@ public class InformerManager implements LocalLookup {
     @Inject
     ResourceInformerFactory resourceInformerFactory;
 
+    @Inject
+    DeletionTracker deletionTracker;
+
     private ResourceInformer<ManagedKafka> managedKafkaInformer;
     private ResourceInformer<ManagedKafkaAgent> managedAgentInformer;
     private ResourceInformer<Secret> secretInformer;
@@ -44,29 +48,23 @@ public class InformerManager implements LocalLookup {
     @PostConstruct
     protected void onStart() {
         managedKafkaInformer = resourceInformerFactory.create(ManagedKafka.class, client.resources(ManagedKafka.class).inAnyNamespace(),
-                CustomResourceEventHandler.of(controlPlane::updateKafkaClusterStatus));
+                CustomResourceEventHandler.of(controlPlane::updateKafkaClusterStatus), ResourceInformerFactory.withoutManagedFields());
 
         // for the Agent
         managedAgentInformer = resourceInformerFactory.create(ManagedKafkaAgent.class, client.resources(ManagedKafkaAgent.class).inNamespace(client.getNamespace()),
-                CustomResourceEventHandler.of(controlPlane::updateAgentStatus));
+                CustomResourceEventHandler.of(controlPlane::updateAgentStatus), ResourceInformerFactory.withoutManagedFields());
 
         secretInformer = resourceInformerFactory.create(Secret.class, client.secrets().inAnyNamespace().withLabels(OperandUtils.getMasterSecretLabel()),
-                null);
-
-        meterRegistry.gauge("managedkafkas", this, (informer) -> {
-            return informer.getLocalManagedKafkas().size();
-        });
-
-        meterRegistry.gauge("managedkafkas.ready", this, (informer) -> {
-            return informer.getLocalManagedKafkas()
-                    .stream()
-                    .filter(mk -> mk.getStatus() != null && ConditionUtils
-                            .findManagedKafkaCondition(mk.getStatus().getConditions(), Type.Ready)
-                            .filter(mkc -> ManagedKafkaCondition.Status.True.name().equals(mkc.getStatus()))
-                            .isPresent())
-                    .count();
-        });
+                null, SecretManager::removeDigestedData);
+
+        // the namespaces created for ManagedKafkas, so that we know as soon as they are gone
+        resourceInformerFactory.create(Namespace.class, client.namespaces().withLabel(ManagedKafkaSync.MANAGEDKAFKA_ID_NAMESPACE_LABEL),
+                deletionTracker, ResourceInformerFactory.withoutManagedFields());
+
+        // maintained from events, rather than scanning the cache on each scrape
+        managedKafkaInformer.addEventHandler(new ManagedKafkaCounter(meterRegistry));
     }
+
     @Override
     public ManagedKafka getLocalManagedKafka(String metaNamespaceKey) {
         return managedKafkaInformer.getByKey(metaNamespaceKey);
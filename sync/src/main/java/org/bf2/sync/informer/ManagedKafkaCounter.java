@@ -0,0 +1,112 @@
+package org.bf2.sync.informer;
+
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.bf2.common.ConditionUtils;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaCondition;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaCondition.Type;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Maintains the ManagedKafka gauges from informer events, so that a scrape
+ * doesn't need to scan the cache.
+ * <br>
+ * In addition to the total and ready counts, there are counts by profile
+ * and by Ready condition reason.
+ */
+final class ManagedKafkaCounter implements ResourceEventHandler<ManagedKafka> {
+
+    static final String NONE = "none";
+
+    /**
+     * What is counted about each ManagedKafka
+     */
+    static final class Classification {
+        final String profile;
+        final boolean ready;
+        final String reason;
+
+        Classification(ManagedKafka managedKafka) {
+            this.profile = managedKafka.getLabel(ManagedKafka.PROFILE_TYPE).orElse(NONE);
+            Optional<ManagedKafkaCondition> condition = Optional.ofNullable(managedKafka.getStatus())
+                    .flatMap(s -> ConditionUtils.findManagedKafkaCondition(s.getConditions(), Type.Ready));
+            this.ready = condition.filter(c -> ManagedKafkaCondition.Status.True.name().equals(c.getStatus())).isPresent();
+            this.reason = condition.map(ManagedKafkaCondition::getReason).orElse(NONE);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Classification)) {
+                return false;
+            }
+            Classification other = (Classification) obj;
+            return ready == other.ready && profile.equals(other.profile) && reason.equals(other.reason);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(profile, ready, reason);
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong total;
+    private final AtomicLong ready;
+    private final Map<String, AtomicLong> byProfile = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> byReason = new ConcurrentHashMap<>();
+
+    ManagedKafkaCounter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.total = meterRegistry.gauge("managedkafkas", new AtomicLong());
+        this.ready = meterRegistry.gauge("managedkafkas.ready", new AtomicLong());
+    }
+
+    @Override
+    public void onAdd(ManagedKafka obj) {
+        count(new Classification(obj), 1);
+    }
+
+    @Override
+    public void onUpdate(ManagedKafka oldObj, ManagedKafka newObj) {
+        Classification oldClassification = new Classification(oldObj);
+        Classification newClassification = new Classification(newObj);
+        if (!oldClassification.equals(newClassification)) {
+            count(oldClassification, -1);
+            count(newClassification, 1);
+        }
+    }
+
+    @Override
+    public void onDelete(ManagedKafka obj, boolean deletedFinalStateUnknown) {
+        count(new Classification(obj), -1);
+    }
+
+    private void count(Classification classification, int delta) {
+        total.addAndGet(delta);
+        if (classification.ready) {
+            ready.addAndGet(delta);
+        }
+        counter(byProfile, "managedkafkas.profile", "profile", classification.profile).addAndGet(delta);
+        counter(byReason, "managedkafkas.reason", "reason", classification.reason).addAndGet(delta);
+    }
+
+    private AtomicLong counter(Map<String, AtomicLong> counters, String name, String tag, String value) {
+        return counters.computeIfAbsent(value, v -> meterRegistry.gauge(name, Tags.of(tag, v), new AtomicLong()));
+    }
+
+    long getTotal() {
+        return total.get();
+    }
+
+    long getReady() {
+        return ready.get();
+    }
+
+}
@@ -4,14 +4,15 @@ import io.fabric8.kubernetes.api.model.Secret;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.quarkus.runtime.Quarkus;
 import io.quarkus.runtime.Startup;
-import io.quarkus.scheduler.Scheduled;
-import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+import io.quarkus.runtime.StartupEvent;
+import org.bf2.common.ResourceInformerFactory;
 import org.eclipse.microprofile.config.ConfigProvider;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.config.spi.ConfigSource;
 import org.jboss.logging.Logger;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 
 import java.util.regex.Matcher;
@@ -32,6 +33,9 @@ public class SecretRestartHandler {
     @Inject
     KubernetesClient client;
 
+    @Inject
+    ResourceInformerFactory resourceInformerFactory;
+
     private volatile String resourceVersion;
     /*
      * track the uid to detect delete/add (there unfortunately doesn't seem
@@ -39,33 +43,37 @@ public class SecretRestartHandler {
      */
     private volatile String uid;
 
-    @Scheduled(every = "60s", concurrentExecution = ConcurrentExecution.SKIP)
-    public void checkSecret() {
-        Secret secret = client.secrets().inNamespace(client.getNamespace()).withName(secretName).get();
+    /* how the restart is requested, replaced in tests */
+    Runnable restart = Quarkus::asyncExit;
+
+    void onStart(@Observes StartupEvent ev) {
+        // find from the config if possible
+        // see https://github.com/quarkusio/quarkus/issues/15247
+        for (ConfigSource configSource : ConfigProvider.getConfig().getConfigSources()) {
+            Matcher matcher = SECRET_PATTERN.matcher(configSource.getName());
+            if (!matcher.matches()) {
+                continue;
+            }
+            uid = matcher.group(1);
+            resourceVersion = matcher.group(2);
+            break;
+        }
+
+        resourceInformerFactory.watch(Secret.class,
+                client.secrets().inNamespace(client.getNamespace()).withName(secretName), this::checkSecret);
+    }
+
+    void checkSecret(Secret secret) {
         if (secret == null) {
             return;
         }
         if (resourceVersion == null) {
-            // find from the config if possible
-            // see https://github.com/quarkusio/quarkus/issues/15247
-            for (ConfigSource configSource : ConfigProvider.getConfig().getConfigSources()) {
-                Matcher matcher = SECRET_PATTERN.matcher(configSource.getName());
-                if (!matcher.matches()) {
-                    continue;
-                }
-                uid = matcher.group(1);
-                resourceVersion = matcher.group(2);
-                break;
-            }
-
-            if (resourceVersion == null) {
-                resourceVersion = secret.getMetadata().getResourceVersion();
-                uid = secret.getMetadata().getUid();
-            }
+            resourceVersion = secret.getMetadata().getResourceVersion();
+            uid = secret.getMetadata().getUid();
         } else if (!resourceVersion.equals(secret.getMetadata().getResourceVersion())
                     || !uid.equals(secret.getMetadata().getUid())) {
             log.info(secretName + " changed, requires a restart to pickup new configuration");
-            Quarkus.asyncExit();
+            restart.run();
         }
     }
 }
@@ -0,0 +1,66 @@
+package org.bf2.sync;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptivePollingTest {
+
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testFixedInterval() {
+        AdaptivePolling.Interval interval = new AdaptivePolling.Interval(false, Duration.ofHours(1), Duration.ofSeconds(1),
+                Duration.ofHours(2), meterRegistry, Tags.empty());
+        assertTrue(interval.isDue());
+        interval.pollStarted();
+        interval.pollCompleted(5, true);
+        assertEquals(Duration.ofHours(1).toNanos(), interval.getIntervalNanos());
+        assertFalse(interval.isDue());
+
+        // not adaptive, so there's no early poll
+        interval.trigger();
+        assertFalse(interval.isDue());
+    }
+
+    @Test
+    void testAdaptiveInterval() {
+        AdaptivePolling.Interval interval = new AdaptivePolling.Interval(true, Duration.ofHours(1), Duration.ofMinutes(1),
+                Duration.ofMinutes(5), meterRegistry, Tags.empty());
+        assertTrue(interval.isDue());
+
+        // back off while quiet, up to the max
+        long[] expected = {2, 4, 5, 5};
+        for (long minutes : expected) {
+            interval.pollStarted();
+            interval.pollCompleted(0, false);
+            assertEquals(Duration.ofMinutes(minutes).toNanos(), interval.getIntervalNanos());
+        }
+        assertFalse(interval.isDue());
+
+        // pending work keeps the interval at the min
+        interval.pollStarted();
+        interval.pollCompleted(0, true);
+        assertEquals(Duration.ofMinutes(1).toNanos(), interval.getIntervalNanos());
+
+        interval.pollStarted();
+        interval.pollCompleted(0, false);
+        interval.trigger();
+        assertTrue(interval.isDue());
+
+        long changedAfter = interval.pollStarted();
+        interval.pollCompleted(3, false);
+        interval.applied(changedAfter);
+        assertEquals(Duration.ofMinutes(1).toNanos(), interval.getIntervalNanos());
+        assertEquals(3, meterRegistry.get("sync.poll.changes").counter().count());
+        assertEquals(1, meterRegistry.get("sync.poll.lag").timer().count());
+    }
+
+}
@@ -0,0 +1,87 @@
+package org.bf2.sync;
+
+import io.fabric8.kubernetes.api.model.Namespace;
+import io.fabric8.kubernetes.api.model.NamespaceBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaCondition.Reason;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaStatus;
+import org.bf2.sync.controlplane.ControlPlane;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DeletionTrackerTest {
+
+    DeletionTracker tracker;
+    ManagedKafka managedKafka;
+    Namespace namespace;
+
+    @BeforeEach
+    void setup() {
+        tracker = new DeletionTracker();
+        tracker.controlPlane = Mockito.mock(ControlPlane.class);
+        tracker.meterRegistry = new SimpleMeterRegistry();
+        tracker.init();
+
+        managedKafka = ManagedKafka.getDummyInstance(1);
+        managedKafka.setId("1");
+        managedKafka.getSpec().setDeleted(true);
+        namespace = new NamespaceBuilder()
+                .withNewMetadata()
+                    .withName(managedKafka.getMetadata().getNamespace())
+                    .addToLabels(ManagedKafkaSync.MANAGEDKAFKA_ID_NAMESPACE_LABEL, "1")
+                .endMetadata()
+                .build();
+    }
+
+    @Test
+    void testDeletedStatusWhenNamespaceIsGone() {
+        Mockito.when(tracker.controlPlane.getDeleteRequestedNanos(managedKafka)).thenReturn(System.nanoTime());
+        tracker.deleting(managedKafka);
+        tracker.onDelete(namespace, false);
+
+        verifyDeletedStatus();
+        Mockito.verify(tracker.controlPlane).removeDesiredState(managedKafka);
+        assertEquals(1, tracker.meterRegistry.get("sync.delete").timer().count());
+
+        // only once
+        tracker.onDelete(namespace, false);
+        Mockito.verify(tracker.controlPlane, Mockito.times(1)).removeDesiredState(managedKafka);
+    }
+
+    @Test
+    void testDeletedStatusFromDesiredState() {
+        // such as after a restart
+        Mockito.when(tracker.controlPlane.getDesiredStatesById("1")).thenReturn(List.of(managedKafka));
+        tracker.onDelete(namespace, false);
+
+        verifyDeletedStatus();
+        Mockito.verify(tracker.controlPlane).removeDesiredState(managedKafka);
+    }
+
+    @Test
+    void testIgnoredWhenNotDeleted() {
+        managedKafka.getSpec().setDeleted(false);
+        Mockito.when(tracker.controlPlane.getDesiredStatesById("1")).thenReturn(List.of(managedKafka));
+        tracker.onDelete(namespace, false);
+
+        Mockito.verify(tracker.controlPlane, Mockito.never()).updateKafkaClusterStatus(Mockito.anyString(), Mockito.any(), Mockito.<Supplier<Map<String, ManagedKafkaStatus>>>any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void verifyDeletedStatus() {
+        ArgumentCaptor<Supplier<Map<String, ManagedKafkaStatus>>> captor = ArgumentCaptor.forClass(Supplier.class);
+        Mockito.verify(tracker.controlPlane).updateKafkaClusterStatus(Mockito.eq("1/deleted"), Mockito.eq(WorkPriority.DELETE), captor.capture());
+        Map<String, ManagedKafkaStatus> status = captor.getValue().get();
+        assertEquals(Reason.Deleted.name(), status.get("1").getConditions().get(0).getReason());
+    }
+
+}
@@ -0,0 +1,91 @@
+package org.bf2.sync;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExecutorServiceProviderTest {
+
+    @Test
+    void testLimitedConcurrency() throws InterruptedException {
+        ExecutorService delegate = Executors.newFixedThreadPool(8);
+        ExecutorService limited = new ExecutorServiceProvider.LimitedExecutorService(delegate, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(8);
+
+        for (int i = 0; i < 8; i++) {
+            limited.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+        limited.shutdownNow();
+    }
+
+    @Test
+    void testLimitedCounts() throws InterruptedException {
+        ExecutorService delegate = Executors.newFixedThreadPool(4);
+        ExecutorServiceProvider.LimitedExecutorService limited = new ExecutorServiceProvider.LimitedExecutorService(delegate, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+
+        for (int i = 0; i < 3; i++) {
+            limited.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limited.getWaitingCount() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, limited.getActiveCount());
+        assertEquals(1, limited.getWaitingCount());
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        limited.shutdownNow();
+    }
+
+    @Test
+    void testVirtualMode() throws InterruptedException {
+        // falls back to platform threads if the JVM does not support virtual threads
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ExecutorServiceProvider provider = new ExecutorServiceProvider(registry, "virtual", 2);
+        CountDownLatch done = new CountDownLatch(1);
+        provider.executorService().execute(done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertNotNull(provider.executorService());
+
+        // the executor metrics are kept in either case
+        for (String gauge : new String[] {"executor.active", "executor.queued", "executor.pool.max"}) {
+            assertNotNull(registry.find(gauge).tag("name", "sync.threadpool").gauge(), gauge);
+        }
+        provider.shutdown();
+    }
+
+}
@@ -0,0 +1,177 @@
+package org.bf2.sync;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KeyedWorkQueueTest {
+
+    KeyedWorkQueue queue;
+
+    @BeforeEach
+    void setup() {
+        queue = new KeyedWorkQueue();
+        queue.log = Logger.getLogger(KeyedWorkQueue.class);
+        queue.executorService = Executors.newFixedThreadPool(4);
+        queue.meterRegistry = new SimpleMeterRegistry();
+        queue.maxWorkers = 4;
+        queue.maxRetries = 2;
+        queue.initialBackoff = Duration.ofMillis(10);
+        queue.maxBackoff = Duration.ofMillis(50);
+        queue.init();
+    }
+
+    @AfterEach
+    void shutdown() {
+        queue.shutdown();
+        queue.executorService.shutdownNow();
+    }
+
+    @Test
+    void testSupersedeAndSerialize() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        List<String> runs = new CopyOnWriteArrayList<>();
+
+        queue.enqueue("a", () -> {
+            runs.add("first");
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // while the first is running, only the last of these should run
+        queue.enqueue("a", () -> runs.add("second"));
+        queue.enqueue("a", () -> {
+            runs.add("third");
+            finished.countDown();
+        });
+        assertEquals(1, queue.getDepth());
+
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first", "third"), runs);
+        assertEquals(1, queue.meterRegistry.get("sync.queue.superseded").counter().count());
+    }
+
+    @Test
+    void testErrorStillRunsPending() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+
+        queue.enqueue("a", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new AssertionError("failed");
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        queue.enqueue("a", finished::countDown);
+
+        release.countDown();
+        // no other enqueue is needed to run the newer task
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRetry() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch succeeded = new CountDownLatch(1);
+
+        queue.enqueue("a", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException();
+            }
+            succeeded.countDown();
+        });
+
+        assertTrue(succeeded.await(5, TimeUnit.SECONDS));
+        assertEquals(3, attempts.get());
+        assertEquals(0, queue.getRetrying());
+        assertEquals(2, queue.meterRegistry.get("executor.failed.tasks").tag("exception", "IllegalStateException").counter().count());
+    }
+
+    @Test
+    void testWeightedPriority() throws InterruptedException {
+        queue.maxWorkers = 1;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(11);
+        List<String> runs = new CopyOnWriteArrayList<>();
+
+        queue.enqueue("blocker", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            finished.countDown();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        queue.enqueue("resync", WorkPriority.RESYNC, () -> {
+            runs.add("resync");
+            finished.countDown();
+        });
+        for (int i = 0; i < 8; i++) {
+            String key = "delete" + i;
+            queue.enqueue(key, WorkPriority.DELETE, () -> {
+                runs.add(key);
+                finished.countDown();
+            });
+        }
+        // superseded by a less urgent task, but keeps the delete priority
+        queue.enqueue("delete7", WorkPriority.UPDATE, () -> {
+            runs.add("update7");
+            finished.countDown();
+        });
+        queue.enqueue("create", WorkPriority.CREATE, () -> {
+            runs.add("create");
+            finished.countDown();
+        });
+
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        // the deletes and create go first, but the resync is not starved behind all of them
+        assertEquals(List.of("delete0", "create", "delete1", "delete2", "delete3", "resync", "delete4", "delete5", "delete6", "update7"), runs);
+        assertEquals(1, queue.meterRegistry.get("sync.queue.wait").tag("priority", "resync").timer().count());
+        assertEquals(8, queue.meterRegistry.get("sync.queue.wait").tag("priority", "delete").timer().count());
+    }
+
+    @Test
+    void testDefaultWorkers() {
+        assertEquals(5, ExecutorServiceProvider.defaultWorkers("platform", 50));
+        assertEquals(50, ExecutorServiceProvider.defaultWorkers("virtual", 50));
+    }
+
+    @Test
+    void testBackoff() {
+        assertEquals(10, queue.backoff(1));
+        assertEquals(20, queue.backoff(2));
+        assertEquals(50, queue.backoff(10));
+        assertEquals(50, queue.backoff(100));
+    }
+
+}
@@ -0,0 +1,105 @@
+package org.bf2.sync;
+
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import org.bf2.operator.ManagedKafkaKeys;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.bf2.sync.controlplane.ControlPlane;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the steady state cost of {@link ManagedKafkaSync#changed(ManagedKafka, ManagedKafka)}
+ * for a full poll, where nothing has changed, with and without the desired state fingerprint.
+ * <br>
+ * Run with the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ManagedKafkaSyncChangedBenchmark {
+
+    @Param({"10000"})
+    int instances;
+
+    @Param({"true", "false"})
+    boolean fingerprint;
+
+    ManagedKafkaSync sync;
+    ManagedKafka[] remotes;
+    ManagedKafka[] locals;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sync = new ManagedKafkaSync();
+        sync.secretManager = new SecretManager();
+        sync.controlPlane = new ControlPlane();
+
+        remotes = new ManagedKafka[instances];
+        locals = new ManagedKafka[instances];
+        for (int i = 0; i < instances; i++) {
+            ManagedKafka remote = ManagedKafka.getDummyInstance(i);
+            remote.setId(remote.getMetadata().getName());
+            sync.controlPlane.addDesiredState(remote);
+            remotes[i] = remote;
+
+            // what create would have applied locally
+            ManagedKafka local = sync.secretManager.removeSecretsFromManagedKafka(remote);
+            sync.secretManager.calculateMasterSecretDigest(local, masterSecret(sync.secretManager.buildSecretData(remote)));
+            if (fingerprint) {
+                local.getMetadata().getAnnotations().put(ManagedKafkaKeys.Annotations.DESIRED_STATE_FINGERPRINT,
+                        sync.controlPlane.getDesiredStateFingerprint(remote));
+            }
+            locals[i] = local;
+        }
+    }
+
+    static Secret masterSecret(Map<String, String> data) {
+        Map<String, String> encoded = new HashMap<>();
+        data.forEach((k, v) -> encoded.put(k, Base64.getEncoder().encodeToString(v.getBytes(StandardCharsets.UTF_8))));
+        return new SecretBuilder().withData(encoded).build();
+    }
+
+    @Benchmark
+    public int changed() {
+        int count = 0;
+        for (int i = 0; i < instances; i++) {
+            if (sync.changed(remotes[i], locals[i])) {
+                count++;
+            }
+        }
+        if (count != 0) {
+            throw new IllegalStateException("Expected no changes");
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ManagedKafkaSyncChangedBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
@@ -1,5 +1,6 @@
 package org.bf2.sync;
 
+import io.fabric8.kubernetes.api.model.NamespaceBuilder;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.TestProfile;
@@ -34,6 +35,7 @@ import java.util.Map;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -187,7 +189,7 @@ public class PollerTest {
                         ZonedDateTime.now(ZoneOffset.UTC).minusMinutes(2).format(DateTimeFormatter.ISO_INSTANT));
         // if it already exists, that could be a problem
         managedKafkaClient.create(managedKafka);
-        assertThrows(Exception.class, () -> managedKafkaSync.create(managedKafka));
+        assertThrows(Exception.class, () -> managedKafkaSync.create(managedKafka).join());
 
         managedKafkaSync.checkCreationTimestamp(managedKafka, Duration.ofHours(1));
         Mockito.verify(terminator, never()).notifyUnhealthy();
@@ -235,6 +237,24 @@ public class PollerTest {
         assertTrue(items.get(0).getSpec().isDeleted());
     }
 
+    @Test
+    void testCreateLabelsExistingNamespace() {
+        ManagedKafka managedKafka = exampleManagedKafka();
+        String namespace = managedKafka.getMetadata().getNamespace();
+        client.namespaces().createOrReplace(new NamespaceBuilder()
+                .withNewMetadata()
+                    .withName(namespace)
+                    .addToLabels("other", "value")
+                .endMetadata()
+                .build());
+
+        assertNotNull(managedKafkaSync.create(managedKafka).join());
+
+        Map<String, String> labels = client.namespaces().withName(namespace).get().getMetadata().getLabels();
+        assertEquals(ID, labels.get(ManagedKafkaSync.MANAGEDKAFKA_ID_NAMESPACE_LABEL));
+        assertEquals("value", labels.get("other"));
+    }
+
     static ManagedKafka exampleManagedKafka() {
         ManagedKafka mk = ManagedKafka.getDummyInstance(1);
         mk.setId(ID);
@@ -0,0 +1,97 @@
+package org.bf2.sync;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProvisioningStagesTest {
+
+    static class Stage {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+
+        <T> T step(T value) {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return value;
+        }
+    }
+
+    @Test
+    void testStagesAreBoundedAndOverlap() throws Exception {
+        ProvisioningStages stages = new ProvisioningStages();
+        stages.meterRegistry = new SimpleMeterRegistry();
+        stages.stageConcurrency = 2;
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        stages.executorService = executor;
+
+        Stage first = new Stage();
+        Stage second = new Stage();
+        AtomicInteger overlapped = new AtomicInteger();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < 10; i++) {
+                int instance = i;
+                CompletableFuture<Integer> started = stages.start("first", () -> first.step(instance));
+                results.add(stages.then(started, "second", value -> {
+                    if (first.running.get() > 0) {
+                        overlapped.incrementAndGet();
+                    }
+                    return second.step(value);
+                }));
+            }
+            for (int i = 0; i < 10; i++) {
+                assertEquals(i, results.get(i).get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2, first.maxRunning.get());
+        assertEquals(2, second.maxRunning.get());
+        // the second stage of the early instances runs while the first stage of the later ones does
+        assertTrue(overlapped.get() > 0);
+        assertEquals(10, stages.meterRegistry.get("sync.create.stage").tag("stage", "second").timer().count());
+    }
+
+    @Test
+    void testFailureSkipsLaterStages() {
+        ProvisioningStages stages = new ProvisioningStages();
+        stages.meterRegistry = new SimpleMeterRegistry();
+        stages.stageConcurrency = 1;
+        stages.executorService = Executors.newSingleThreadExecutor();
+
+        AtomicInteger later = new AtomicInteger();
+        try {
+            CompletableFuture<Object> failed = stages.start("first", () -> {
+                throw new IllegalStateException();
+            });
+            CompletableFuture<Integer> result = stages.then(failed, "second", value -> later.incrementAndGet());
+            assertTrue(result.handle((v, e) -> e != null).join());
+            assertEquals(0, later.get());
+            assertEquals(1, stages.meterRegistry.get("executor.failed.tasks").counter().count());
+
+            // the failure released the stage
+            assertEquals(1, stages.start("first", () -> 1).join());
+        } finally {
+            stages.executorService.shutdownNow();
+        }
+    }
+
+}
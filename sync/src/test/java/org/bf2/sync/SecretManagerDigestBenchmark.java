@@ -0,0 +1,86 @@
+package org.bf2.sync;
+
+import io.fabric8.kubernetes.client.utils.Serialization;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per poll cost of {@link SecretManager#isMasterSecretChanged(ManagedKafka, ManagedKafka)}
+ * where nothing has changed, with and without the digest cache from previous polls.
+ * Each poll sees newly deserialized remote instances, as it would from the control plane.
+ * <br>
+ * Run with the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SecretManagerDigestBenchmark {
+
+    @Param({"10000"})
+    int instances;
+
+    @Param({"true", "false"})
+    boolean cached;
+
+    SecretManager secretManager;
+    ManagedKafka[] remotes;
+    ManagedKafka[] locals;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        secretManager = new SecretManager();
+        remotes = new ManagedKafka[instances];
+        locals = new ManagedKafka[instances];
+        for (int i = 0; i < instances; i++) {
+            ManagedKafka remote = ManagedKafka.getDummyInstance(i);
+            remote.setId(remote.getMetadata().getName());
+            ManagedKafka local = secretManager.removeSecretsFromManagedKafka(remote);
+            secretManager.calculateMasterSecretDigest(local, ManagedKafkaSyncChangedBenchmark.masterSecret(secretManager.buildSecretData(remote)));
+            locals[i] = local;
+            // what the next poll would see
+            remotes[i] = Serialization.clone(remote);
+        }
+    }
+
+    @Benchmark
+    public int poll() {
+        // without the cache every poll is effectively a first poll
+        SecretManager manager = cached ? secretManager : new SecretManager();
+        int count = 0;
+        for (int i = 0; i < instances; i++) {
+            if (manager.isMasterSecretChanged(remotes[i], locals[i])) {
+                count++;
+            }
+        }
+        if (count != 0) {
+            throw new IllegalStateException("Expected no changes");
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SecretManagerDigestBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
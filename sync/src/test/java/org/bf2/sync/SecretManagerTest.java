@@ -0,0 +1,73 @@
+package org.bf2.sync;
+
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import org.bf2.operator.ManagedKafkaKeys.Annotations;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SecretManagerTest {
+
+    @Test
+    void testRemoteDigestCache() {
+        SecretManager secretManager = new SecretManager();
+        ManagedKafka remote = dummyInstance();
+
+        String digest = secretManager.masterSecretDigest(remote);
+        assertSame(digest, secretManager.masterSecretDigest(dummyInstance()));
+
+        ManagedKafka local = secretManager.removeSecretsFromManagedKafka(remote);
+        secretManager.calculateMasterSecretDigest(local, ManagedKafkaSyncChangedBenchmark.masterSecret(secretManager.buildSecretData(remote)));
+        assertEquals(digest, local.getMetadata().getAnnotations().get(Annotations.MASTER_SECRET_DIGEST));
+        assertFalse(secretManager.isMasterSecretChanged(remote, local));
+
+        // a change to the data is still seen
+        ManagedKafka changed = dummyInstance();
+        changed.getSpec().getOauth().setClientSecret("changed");
+        assertTrue(secretManager.isMasterSecretChanged(changed, local));
+
+        String changedDigest = secretManager.masterSecretDigest(changed);
+        assertNotEquals(digest, changedDigest);
+        // and the new digest replaces the cached one
+        assertSame(changedDigest, secretManager.masterSecretDigest(changed));
+
+        secretManager.evict(changed);
+        assertFalse(secretManager.remoteDigests.containsKey(changed.getId()));
+    }
+
+    private static ManagedKafka dummyInstance() {
+        ManagedKafka managedKafka = ManagedKafka.getDummyInstance(1);
+        managedKafka.setId("1");
+        return managedKafka;
+    }
+
+    @Test
+    void testSecretDigestByResourceVersion() {
+        SecretManager secretManager = new SecretManager();
+        ManagedKafka remote = ManagedKafka.getDummyInstance(1);
+        Secret secret = new SecretBuilder(ManagedKafkaSyncChangedBenchmark.masterSecret(secretManager.buildSecretData(remote)))
+                .withNewMetadata()
+                    .withNamespace("ns")
+                    .withName("master")
+                    .withResourceVersion("1")
+                .endMetadata()
+                .build();
+
+        String digest = secretManager.secretDigest(secret);
+        assertEquals(secretManager.masterSecretDigest(remote), digest);
+
+        // the same resourceVersion is assumed to have the same data
+        Secret sameVersion = new SecretBuilder(secret).addToData("other", "b3RoZXI=").build();
+        assertSame(digest, secretManager.secretDigest(sameVersion));
+
+        Secret newVersion = new SecretBuilder(sameVersion).editMetadata().withResourceVersion("2").endMetadata().build();
+        assertNotEquals(digest, secretManager.secretDigest(newVersion));
+    }
+
+}
@@ -65,6 +65,11 @@ public class UpdateTest {
         controlPlane.sendResync();
         ArgumentCaptor<Map<String, ManagedKafkaStatus>> statusCaptor = getUpdates();
         assertEquals("Installed", statusCaptor.getValue().get(PollerTest.ID).getConditions().get(0).getStatus());
+
+        // nothing has changed since the last send
+        Mockito.clearInvocations(controlPlaneRestClient);
+        controlPlane.sendResync();
+        Mockito.verify(controlPlaneRestClient, Mockito.never()).updateKafkaClustersStatus(Mockito.any(), Mockito.any());
     }
 
     private ArgumentCaptor<Map<String, ManagedKafkaStatus>> getUpdates() {
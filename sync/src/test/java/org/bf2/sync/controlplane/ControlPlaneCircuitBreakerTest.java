@@ -0,0 +1,85 @@
+package org.bf2.sync.controlplane;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bf2.sync.controlplane.ControlPlaneCircuitBreaker.State;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ControlPlaneCircuitBreakerTest {
+
+    @Test
+    void testStates() throws InterruptedException {
+        ControlPlaneCircuitBreaker breaker = new ControlPlaneCircuitBreaker();
+        breaker.log = Logger.getLogger(ControlPlaneCircuitBreaker.class);
+        breaker.meterRegistry = new SimpleMeterRegistry();
+        breaker.enabled = true;
+        breaker.failureThreshold = 2;
+        breaker.initialBackoff = Duration.ofMillis(10);
+        breaker.maxBackoff = Duration.ofMillis(10);
+        AtomicInteger closed = new AtomicInteger();
+        breaker.onClose(closed::incrementAndGet);
+
+        // client errors don't count
+        for (int i = 0; i < 3; i++) {
+            assertThrows(NotFoundException.class, () -> breaker.run(() -> { throw new NotFoundException(); }));
+        }
+        assertEquals(State.CLOSED, breaker.getState());
+
+        assertThrows(ServiceUnavailableException.class, () -> breaker.run(() -> { throw new ServiceUnavailableException(); }));
+        assertEquals(State.CLOSED, breaker.getState());
+        assertThrows(ServiceUnavailableException.class, () -> breaker.run(() -> { throw new ServiceUnavailableException(); }));
+        assertEquals(State.OPEN, breaker.getState());
+        assertThrows(ControlPlaneCircuitBreaker.OpenException.class, () -> breaker.call(() -> "x"));
+
+        // a failed probe opens it again
+        Thread.sleep(20);
+        assertThrows(ServiceUnavailableException.class, () -> breaker.run(() -> { throw new ServiceUnavailableException(); }));
+        assertEquals(State.OPEN, breaker.getState());
+
+        Thread.sleep(20);
+        assertEquals("x", breaker.call(() -> "x"));
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals(1, closed.get());
+        assertEquals(2, breaker.meterRegistry.get("sync.control-plane.breaker.transitions").tag("state", "open").counter().count());
+    }
+
+    @Test
+    void testErrorInProbe() throws InterruptedException {
+        ControlPlaneCircuitBreaker breaker = new ControlPlaneCircuitBreaker();
+        breaker.log = Logger.getLogger(ControlPlaneCircuitBreaker.class);
+        breaker.meterRegistry = new SimpleMeterRegistry();
+        breaker.enabled = true;
+        breaker.failureThreshold = 1;
+        breaker.initialBackoff = Duration.ofMillis(10);
+        breaker.maxBackoff = Duration.ofMillis(10);
+
+        assertThrows(ServiceUnavailableException.class, () -> breaker.run(() -> { throw new ServiceUnavailableException(); }));
+        assertEquals(State.OPEN, breaker.getState());
+
+        // an error in the probe opens the circuit again, rather than leaving it half open
+        Thread.sleep(20);
+        assertThrows(AssertionError.class, () -> breaker.run(() -> { throw new AssertionError(); }));
+        assertEquals(State.OPEN, breaker.getState());
+
+        Thread.sleep(20);
+        assertEquals("x", breaker.call(() -> "x"));
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testBackoff() {
+        assertEquals(10, ControlPlaneCircuitBreaker.backoff(1, 10, 100));
+        assertEquals(40, ControlPlaneCircuitBreaker.backoff(3, 10, 100));
+        assertEquals(100, ControlPlaneCircuitBreaker.backoff(50, 10, 100));
+    }
+
+}
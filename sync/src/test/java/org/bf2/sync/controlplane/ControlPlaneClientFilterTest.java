@@ -0,0 +1,75 @@
+package org.bf2.sync.controlplane;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.kubernetes.client.WithKubernetesTestServer;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the per endpoint metrics over a real round trip with the {@link MockControlPlane}
+ * and the {@link MockControlPlaneETagFilter}
+ */
+@WithKubernetesTestServer
+@QuarkusTest
+@TestProfile(SyncBenchmarkProfile.class)
+public class ControlPlaneClientFilterTest {
+
+    private static final String ENDPOINT = "getKafkaClustersIfNoneMatch";
+
+    @Inject
+    MockControlPlane mockControlPlane;
+
+    @Inject
+    @RestClient
+    ControlPlaneRestClient controlPlaneClient;
+
+    @Test
+    void testNotModifiedRoundTrip() {
+        mockControlPlane.createCluster(ManagedKafka.getDummyInstance(1));
+        long okBefore = count(ENDPOINT, "200");
+        long notModifiedBefore = count(ENDPOINT, "304");
+
+        String etag;
+        try (Response response = controlPlaneClient.getKafkaClustersIfNoneMatch("x", null)) {
+            assertEquals(200, response.getStatus());
+            etag = response.getHeaderString(HttpHeaders.ETAG);
+            assertNotNull(etag);
+            response.readEntity(String.class);
+        }
+        try (Response response = controlPlaneClient.getKafkaClustersIfNoneMatch("x", etag)) {
+            assertEquals(304, response.getStatus());
+        }
+
+        assertEquals(okBefore + 1, count(ENDPOINT, "200"));
+        assertEquals(notModifiedBefore + 1, count(ENDPOINT, "304"));
+        assertTrue(Metrics.globalRegistry.get("sync.control-plane.bytes")
+                .tag("endpoint", ENDPOINT)
+                .tag("direction", "received")
+                .counter()
+                .count() > 0);
+        // the invoked method was available, so nothing fell back to the http method
+        assertNull(Metrics.globalRegistry.find("sync.control-plane.request").tag("endpoint", "GET").timer());
+    }
+
+    static long count(String endpoint, String status) {
+        Timer timer = Metrics.globalRegistry.find("sync.control-plane.request")
+                .tag("endpoint", endpoint)
+                .tag("status", status)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+}
@@ -1,12 +1,31 @@
 package org.bf2.sync.controlplane;
 
+import io.fabric8.kubernetes.api.model.ListMetaBuilder;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaList;
 import org.bf2.operator.resources.v1alpha1.ManagedKafkaStatus;
 import org.bf2.operator.resources.v1alpha1.ManagedKafkaStatusBuilder;
+import org.bf2.sync.KeyedWorkQueue;
+import org.bf2.sync.WorkPriority;
+import org.bf2.sync.informer.LocalLookup;
+import org.jboss.logging.Logger;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
 
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ControlPlaneTest {
@@ -32,4 +51,124 @@ public class ControlPlaneTest {
         assertTrue(ControlPlane.statusChanged(status, newStatus));
     }
 
+    @Test public void testDesiredStatesById() {
+        ControlPlane controlPlane = new ControlPlane();
+        ManagedKafka mk = ManagedKafka.getDummyInstance(1);
+        mk.setId("id1");
+
+        controlPlane.addDesiredState(mk);
+        assertEquals(List.of(mk), controlPlane.getDesiredStatesById("id1"));
+        assertTrue(controlPlane.getDesiredStatesById("id2").isEmpty());
+
+        controlPlane.removeDesiredState(mk);
+        assertTrue(controlPlane.getDesiredStatesById("id1").isEmpty());
+    }
+
+    @Test public void testFullResyncDecidedWhenRun() {
+        ControlPlane controlPlane = new ControlPlane();
+        controlPlane.log = Logger.getLogger(ControlPlane.class);
+        controlPlane.breaker = new ControlPlaneCircuitBreaker();
+        controlPlane.fullResyncInterval = Duration.ofHours(1);
+        controlPlane.workQueue = Mockito.mock(KeyedWorkQueue.class);
+        controlPlane.localLookup = Mockito.mock(LocalLookup.class);
+        controlPlane.statusPublisher = Mockito.mock(StatusPublisher.class);
+
+        ManagedKafka mk = ManagedKafka.getDummyInstance(1);
+        mk.setId("id1");
+        mk.setStatus(new ManagedKafkaStatusBuilder().withUpdatedTimestamp("2022-01-01").build());
+        Mockito.when(controlPlane.localLookup.getLocalManagedKafkas()).thenReturn(List.of(mk));
+        Mockito.when(controlPlane.statusPublisher.isSent(Mockito.anyString(), Mockito.any())).thenReturn(true);
+
+        controlPlane.sendResync();
+        controlPlane.sendResync();
+        ArgumentCaptor<Runnable> tasks = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(controlPlane.workQueue, Mockito.times(2)).enqueue(Mockito.eq("status:resync"), Mockito.eq(WorkPriority.RESYNC), tasks.capture());
+
+        // the second supersedes the first, so it is the one that is full
+        tasks.getAllValues().get(1).run();
+        Mockito.verify(controlPlane.statusPublisher).publish(Map.of("id1", mk.getStatus()));
+
+        // the next is a delta, and everything was sent
+        tasks.getAllValues().get(0).run();
+        Mockito.verify(controlPlane.statusPublisher, Mockito.times(1)).publish(Mockito.anyMap());
+    }
+
+    @Test public void testDeltaPolling() {
+        ControlPlane controlPlane = new ControlPlane();
+        controlPlane.log = Logger.getLogger(ControlPlane.class);
+        controlPlane.id = "007";
+        controlPlane.deltaEnabled = true;
+        controlPlane.fullPollInterval = Duration.ofHours(1);
+        controlPlane.controlPlaneClient = Mockito.mock(ControlPlaneRestClient.class);
+        controlPlane.breaker = new ControlPlaneCircuitBreaker();
+
+        ManagedKafka mk = ManagedKafka.getDummyInstance(1);
+
+        // no revision yet, so a full poll is required
+        assertNull(controlPlane.getKafkaClusterChanges());
+
+        Mockito.when(controlPlane.controlPlaneClient.getKafkaClusters("007")).thenReturn(list("1", mk));
+        assertEquals(1, controlPlane.getKafkaClusters().size());
+
+        ManagedKafka changed = ManagedKafka.getDummyInstance(1);
+        changed.getSpec().setDeleted(true);
+        Mockito.when(controlPlane.controlPlaneClient.getKafkaClusterChanges("007", "1")).thenReturn(list("2", changed));
+        assertEquals(1, controlPlane.getKafkaClusterChanges().size());
+        assertTrue(controlPlane.getDesiredState(ControlPlane.managedKafkaKey(mk)).getSpec().isDeleted());
+
+        // nothing new since revision 2
+        Mockito.when(controlPlane.controlPlaneClient.getKafkaClusterChanges("007", "2")).thenReturn(list("2"));
+        assertNotNull(controlPlane.getKafkaClusterChanges());
+
+        // a response without a revision means the delta is not supported
+        Mockito.when(controlPlane.controlPlaneClient.getKafkaClusterChanges("007", "2")).thenReturn(new ManagedKafkaList());
+        assertNull(controlPlane.getKafkaClusterChanges());
+        assertNull(controlPlane.getKafkaClusterChanges());
+
+        // a full poll is due
+        controlPlane.getKafkaClusters();
+        controlPlane.fullPollInterval = Duration.ZERO;
+        assertNull(controlPlane.getKafkaClusterChanges());
+    }
+
+    @Test public void testConditionalPolling() {
+        ControlPlane controlPlane = new ControlPlane();
+        controlPlane.log = Logger.getLogger(ControlPlane.class);
+        controlPlane.id = "007";
+        controlPlane.conditionalEnabled = true;
+        controlPlane.fullPollInterval = Duration.ofHours(1);
+        controlPlane.controlPlaneClient = Mockito.mock(ControlPlaneRestClient.class);
+        controlPlane.breaker = new ControlPlaneCircuitBreaker();
+
+        ManagedKafka mk = ManagedKafka.getDummyInstance(1);
+        Response ok = Mockito.mock(Response.class);
+        Mockito.when(ok.getStatus()).thenReturn(200);
+        Mockito.when(ok.readEntity(ManagedKafkaList.class)).thenReturn(list("1", mk));
+        Mockito.when(ok.getHeaderString(HttpHeaders.ETAG)).thenReturn("\"a\"");
+        Response notModified = Mockito.mock(Response.class);
+        Mockito.when(notModified.getStatus()).thenReturn(304);
+
+        // the first request is unconditional
+        Mockito.when(controlPlane.controlPlaneClient.getKafkaClustersIfNoneMatch("007", null)).thenReturn(ok);
+        List<ManagedKafka> seen = new ArrayList<>();
+        assertTrue(controlPlane.getKafkaClusters(seen::add));
+        assertEquals(List.of(mk), seen);
+
+        Mockito.when(controlPlane.controlPlaneClient.getKafkaClustersIfNoneMatch("007", "\"a\"")).thenReturn(notModified);
+        assertFalse(controlPlane.getKafkaClusters(seen::add));
+        assertEquals(1, seen.size());
+        Mockito.verify(notModified).close();
+
+        // unconditional again once the full poll interval has passed
+        controlPlane.fullPollInterval = Duration.ZERO;
+        assertTrue(controlPlane.getKafkaClusters(seen::add));
+        assertEquals(2, seen.size());
+    }
+
+    static ManagedKafkaList list(String revision, ManagedKafka... items) {
+        ManagedKafkaList result = new ManagedKafkaList(Arrays.asList(items));
+        result.setMetadata(new ListMetaBuilder().withResourceVersion(revision).build());
+        return result;
+    }
+
 }
@@ -0,0 +1,82 @@
+package org.bf2.sync.controlplane;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaList;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ControlPlaneWatchTest {
+
+    @Test
+    void testWatch() {
+        ControlPlane controlPlane = new ControlPlane();
+        controlPlane.log = Logger.getLogger(ControlPlane.class);
+        controlPlane.id = "007";
+        controlPlane.controlPlaneClient = Mockito.mock(ControlPlaneRestClient.class);
+        controlPlane.breaker = new ControlPlaneCircuitBreaker();
+
+        ControlPlaneWatch watch = new ControlPlaneWatch();
+        watch.log = Logger.getLogger(ControlPlaneWatch.class);
+        watch.controlPlane = controlPlane;
+        watch.meterRegistry = new SimpleMeterRegistry();
+        watch.wait = Duration.ofSeconds(8);
+
+        List<ManagedKafka> seen = new ArrayList<>();
+
+        // no revision until there's been a poll
+        assertFalse(watch.watchOnce(seen::add));
+
+        ManagedKafka mk = ManagedKafka.getDummyInstance(1);
+        Mockito.when(controlPlane.controlPlaneClient.getKafkaClusters("007")).thenReturn(ControlPlaneTest.list("1"));
+        controlPlane.getKafkaClusters();
+
+        Mockito.when(controlPlane.controlPlaneClient.watchKafkaClusters("007", "1", 8)).thenReturn(ControlPlaneTest.list("2", mk));
+        assertTrue(watch.watchOnce(seen::add));
+        assertTrue(watch.isConnected());
+        assertEquals(List.of(mk), seen);
+        assertEquals(mk, controlPlane.getDesiredState(ControlPlane.managedKafkaKey(mk)));
+
+        // fall back to polling when the watch breaks
+        Mockito.when(controlPlane.controlPlaneClient.watchKafkaClusters("007", "2", 8)).thenThrow(new RuntimeException());
+        assertFalse(watch.watchOnce(seen::add));
+        assertFalse(watch.isConnected());
+
+        // or isn't supported
+        Mockito.when(controlPlane.controlPlaneClient.watchKafkaClusters("007", "2", 8)).thenReturn(new ManagedKafkaList());
+        assertFalse(watch.watchOnce(seen::add));
+    }
+
+    @Test
+    void testMockControlPlaneWatch() throws Exception {
+        MockControlPlane mockControlPlane = new MockControlPlane();
+        mockControlPlane.log = Logger.getLogger(MockControlPlane.class);
+
+        String revision = mockControlPlane.getKafkaClusters("007").getMetadata().getResourceVersion();
+
+        // nothing changes within the wait
+        ManagedKafkaList result = mockControlPlane.watchKafkaClusters("007", revision, 0);
+        assertTrue(result.getItems().isEmpty());
+        assertEquals(revision, result.getMetadata().getResourceVersion());
+
+        CompletableFuture<ManagedKafkaList> watched = CompletableFuture.supplyAsync(() -> mockControlPlane.watchKafkaClusters("007", revision, 30));
+        ManagedKafka mk = ManagedKafka.getDummyInstance(1);
+        mockControlPlane.createCluster(mk);
+
+        result = watched.get(10, TimeUnit.SECONDS);
+        assertEquals(1, result.getItems().size());
+        assertEquals(mk.getId(), result.getItems().get(0).getId());
+    }
+
+}
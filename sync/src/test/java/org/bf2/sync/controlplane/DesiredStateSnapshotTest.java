@@ -0,0 +1,101 @@
+package org.bf2.sync.controlplane;
+
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DesiredStateSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path path = dir.resolve("snapshot");
+        assertNull(DesiredStateSnapshot.read(path));
+
+        ManagedKafka mk = ManagedKafka.getDummyInstance(1);
+        mk.setId("id");
+        DesiredStateSnapshot.write(path, Arrays.asList(mk, ManagedKafka.getDummyInstance(2)));
+
+        List<ManagedKafka> read = DesiredStateSnapshot.read(path);
+        assertEquals(2, read.size());
+        assertEquals("id", read.get(0).getId());
+        assertEquals(mk.getSpec(), read.get(0).getSpec());
+        assertEquals(List.of(path), Files.list(dir).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testCorrupt() throws IOException {
+        Path path = dir.resolve("snapshot");
+        DesiredStateSnapshot.write(path, Arrays.asList(ManagedKafka.getDummyInstance(1)));
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 5] ^= 1;
+        Files.write(path, bytes);
+
+        assertThrows(IOException.class, () -> DesiredStateSnapshot.read(path));
+    }
+
+    @Test
+    public void testControlPlaneLoad() throws IOException {
+        Path path = dir.resolve("snapshot");
+        ManagedKafka mk = ManagedKafka.getDummyInstance(1);
+        mk.setId("id");
+        DesiredStateSnapshot.write(path, Arrays.asList(mk));
+
+        ControlPlane controlPlane = new ControlPlane();
+        controlPlane.log = Logger.getLogger(ControlPlane.class);
+        controlPlane.snapshotFile = Optional.of(path.toString());
+        controlPlane.loadSnapshot();
+
+        assertNotNull(controlPlane.getDesiredState(ControlPlane.managedKafkaKey(mk)));
+    }
+
+    @Test
+    public void testControlPlanePrunesAfterFullPoll() throws IOException {
+        Path path = dir.resolve("snapshot");
+        ManagedKafka removed = ManagedKafka.getDummyInstance(1);
+        removed.setId("removed");
+        ManagedKafka kept = ManagedKafka.getDummyInstance(2);
+        kept.setId("kept");
+        DesiredStateSnapshot.write(path, Arrays.asList(removed, kept));
+
+        ControlPlane controlPlane = new ControlPlane();
+        controlPlane.log = Logger.getLogger(ControlPlane.class);
+        controlPlane.id = "007";
+        controlPlane.controlPlaneClient = Mockito.mock(ControlPlaneRestClient.class);
+        controlPlane.breaker = new ControlPlaneCircuitBreaker();
+        controlPlane.snapshotFile = Optional.of(path.toString());
+        controlPlane.loadSnapshot();
+        assertEquals(2, controlPlane.getDesiredStates().size());
+
+        // the control plane no longer has the removed instance
+        Mockito.when(controlPlane.controlPlaneClient.getKafkaClusters("007")).thenReturn(ControlPlaneTest.list("1", kept));
+        controlPlane.getKafkaClusters();
+
+        assertNull(controlPlane.getDesiredState(ControlPlane.managedKafkaKey(removed)));
+        assertNotNull(controlPlane.getDesiredState(ControlPlane.managedKafkaKey(kept)));
+
+        // later polls only remove via the normal deletion handling
+        Mockito.when(controlPlane.controlPlaneClient.getKafkaClusters("007")).thenReturn(ControlPlaneTest.list("2"));
+        controlPlane.getKafkaClusters();
+        assertNotNull(controlPlane.getDesiredState(ControlPlane.managedKafkaKey(kept)));
+    }
+
+}
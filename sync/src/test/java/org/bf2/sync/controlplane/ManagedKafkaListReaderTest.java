@@ -0,0 +1,51 @@
+package org.bf2.sync.controlplane;
+
+import io.fabric8.kubernetes.api.model.ListMetaBuilder;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaList;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ManagedKafkaListReaderTest {
+
+    @Test public void testRead() throws IOException {
+        ManagedKafkaList list = new ManagedKafkaList(Arrays.asList(ManagedKafka.getDummyInstance(1), ManagedKafka.getDummyInstance(2)));
+        list.setMetadata(new ListMetaBuilder().withResourceVersion("5").build());
+
+        List<ManagedKafka> items = new ArrayList<>();
+        String revision = ManagedKafkaListReader.read(toStream(Serialization.asJson(list)), items::add);
+
+        assertEquals("5", revision);
+        assertEquals(2, items.size());
+        assertEquals(list.getItems().get(1).getId(), items.get(1).getId());
+        assertEquals(list.getItems().get(1).getSpec(), items.get(1).getSpec());
+    }
+
+    @Test public void testReadMetadataLast() throws IOException {
+        String json = "{\"kind\":\"ManagedKafkaList\",\"items\":[" + Serialization.asJson(ManagedKafka.getDummyInstance(1))
+                + "],\"other\":{\"a\":[1,2]},\"metadata\":{\"resourceVersion\":\"7\"}}";
+
+        List<ManagedKafka> items = new ArrayList<>();
+        assertEquals("7", ManagedKafkaListReader.read(toStream(json), items::add));
+        assertEquals(1, items.size());
+
+        items.clear();
+        assertNull(ManagedKafkaListReader.read(toStream("{\"items\":[]}"), items::add));
+        assertEquals(0, items.size());
+    }
+
+    private static ByteArrayInputStream toStream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,125 @@
+package org.bf2.sync.controlplane;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaStatus;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaStatusBuilder;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.ws.rs.ProcessingException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StatusPublisherTest {
+
+    StatusPublisher publisher;
+
+    @BeforeEach
+    void setup() {
+        publisher = new StatusPublisher();
+        publisher.log = Logger.getLogger(StatusPublisher.class);
+        publisher.id = "007";
+        publisher.controlPlaneClient = Mockito.mock(ControlPlaneRestClient.class);
+        publisher.meterRegistry = new SimpleMeterRegistry();
+        publisher.enabled = true;
+        publisher.window = Duration.ofHours(1);
+        publisher.maxSize = 3;
+        publisher.maxHeld = 2;
+        publisher.breaker = new ControlPlaneCircuitBreaker();
+        publisher.breaker.log = Logger.getLogger(ControlPlaneCircuitBreaker.class);
+        publisher.breaker.meterRegistry = publisher.meterRegistry;
+        publisher.breaker.failureThreshold = 1;
+        publisher.breaker.initialBackoff = Duration.ofMillis(10);
+        publisher.breaker.maxBackoff = Duration.ofMillis(10);
+        publisher.init();
+    }
+
+    @AfterEach
+    void shutdown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    void testLatestWins() {
+        ManagedKafkaStatus older = new ManagedKafkaStatusBuilder().withUpdatedTimestamp("1").build();
+        ManagedKafkaStatus newer = new ManagedKafkaStatusBuilder().withUpdatedTimestamp("2").build();
+        ManagedKafkaStatus other = new ManagedKafkaStatusBuilder().withUpdatedTimestamp("3").build();
+
+        publisher.publish(Map.of("a", older));
+        publisher.publish(Map.of("b", other));
+        publisher.publish(Map.of("a", newer));
+        Mockito.verifyNoInteractions(publisher.controlPlaneClient);
+
+        publisher.flush();
+        Mockito.verify(publisher.controlPlaneClient).updateKafkaClustersStatus("007", Map.of("a", newer, "b", other));
+        assertEquals(1, publisher.meterRegistry.get("sync.status.batch.size").summary().count());
+
+        // nothing left to send
+        publisher.flush();
+        Mockito.verifyNoMoreInteractions(publisher.controlPlaneClient);
+    }
+
+    @Test
+    void testSentFingerprints() {
+        ManagedKafkaStatus status = new ManagedKafkaStatusBuilder().withUpdatedTimestamp("1").build();
+        assertFalse(publisher.isSent("a", status));
+
+        publisher.publish(Map.of("a", status));
+        publisher.flush();
+        assertTrue(publisher.isSent("a", new ManagedKafkaStatusBuilder(status).build()));
+        assertFalse(publisher.isSent("a", new ManagedKafkaStatusBuilder().withUpdatedTimestamp("2").build()));
+
+        publisher.retainSent(Set.of("b"));
+        assertFalse(publisher.isSent("a", status));
+    }
+
+    @Test
+    void testMaxSize() {
+        ManagedKafkaStatus status = new ManagedKafkaStatus();
+
+        publisher.publish(Map.of("a", status, "b", status));
+        publisher.publish(Map.of("c", status));
+
+        Mockito.verify(publisher.controlPlaneClient, Mockito.timeout(5000))
+                .updateKafkaClustersStatus("007", Map.of("a", status, "b", status, "c", status));
+    }
+
+    @Test
+    void testHeldWhileOpen() throws InterruptedException {
+        publisher.enabled = false;
+        publisher.breaker.enabled = true;
+        ManagedKafkaStatus older = new ManagedKafkaStatusBuilder().withUpdatedTimestamp("1").build();
+        ManagedKafkaStatus newer = new ManagedKafkaStatusBuilder().withUpdatedTimestamp("2").build();
+
+        Mockito.doThrow(new ProcessingException("down")).when(publisher.controlPlaneClient).updateKafkaClustersStatus(Mockito.eq("007"), Mockito.anyMap());
+        publisher.publish(Map.of("a", older));
+        assertTrue(publisher.breaker.isOpen());
+
+        // latest wins, and beyond the max is dropped
+        publisher.publish(Map.of("a", newer, "b", older));
+        publisher.publish(Map.of("c", older));
+        assertEquals(1, publisher.meterRegistry.get("sync.status.dropped").counter().count());
+
+        // the probe succeeds, closing the circuit and sending everything held
+        // except b, as the probe has sent a newer status for it
+        Mockito.reset(publisher.controlPlaneClient);
+        Thread.sleep(20);
+        publisher.publish(Map.of("b", newer));
+        assertFalse(publisher.breaker.isOpen());
+        Mockito.verify(publisher.controlPlaneClient, Mockito.timeout(5000))
+                .updateKafkaClustersStatus("007", Map.of("a", newer));
+        Mockito.verify(publisher.controlPlaneClient).updateKafkaClustersStatus("007", Map.of("b", newer));
+        Mockito.verifyNoMoreInteractions(publisher.controlPlaneClient);
+        assertTrue(publisher.isSent("b", newer));
+    }
+
+}
@@ -0,0 +1,29 @@
+package org.bf2.sync.controlplane;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+import org.bf2.sync.DirectExecutorServiceProvider;
+
+import java.util.Map;
+
+/**
+ * Runs the sync against the in-process {@link MockControlPlane} over http, with the real
+ * executor rather than the direct one used by the other tests.
+ */
+public class SyncBenchmarkProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of("quarkus.scheduler.enabled", "false",
+                "quarkus.arc.exclude-types", DirectExecutorServiceProvider.class.getName(),
+                "control-plane.url", "http://localhost:${quarkus.http.test-port:8081}",
+                "sync.mock-control-plane.latency", System.getProperty("sync.benchmark.latency", "0s"),
+                "quarkus.log.category.\"org.bf2\".level", "INFO",
+                "quarkus.log.category.\"org.bf2.sync.controlplane.MockControlPlane\".level", "WARN");
+    }
+
+    @Override
+    public boolean disableApplicationLifecycleObservers() {
+        return true;
+    }
+
+}
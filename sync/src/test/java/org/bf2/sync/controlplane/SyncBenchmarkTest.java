@@ -0,0 +1,240 @@
+package org.bf2.sync.controlplane;
+
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.kubernetes.client.KubernetesTestServer;
+import io.quarkus.test.kubernetes.client.WithKubernetesTestServer;
+import org.bf2.common.ManagedKafkaResourceClient;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaBuilder;
+import org.bf2.sync.KeyedWorkQueue;
+import org.bf2.sync.ManagedKafkaSync;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.inject.Inject;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * An end to end harness for the sync at fleet scale.  For each size the {@link MockControlPlane}
+ * is populated, then the initial poll, several rounds of churn, and a full resync are measured
+ * against the mock kubernetes server.
+ * <br>
+ * Disabled unless -Dsync.benchmark=true, other system properties:
+ * <ul>
+ * <li>sync.benchmark.sizes - comma separated instance counts, default 100,1000,10000
+ * <li>sync.benchmark.churn - the fraction of instances created, deleted or updated each round, default 0.05
+ * <li>sync.benchmark.rounds - the number of churn rounds, default 3
+ * <li>sync.benchmark.latency - added to each control plane call, default 0s
+ * <li>sync.benchmark.report - the json report, default target/sync-benchmark.json
+ * </ul>
+ * Allocation is measured for live threads only, so it is a lower bound.
+ */
+@WithKubernetesTestServer
+@QuarkusTest
+@TestProfile(SyncBenchmarkProfile.class)
+@EnabledIfSystemProperty(named = "sync.benchmark", matches = "true")
+public class SyncBenchmarkTest {
+
+    private static final Logger log = Logger.getLogger(SyncBenchmarkTest.class);
+    private static final long IDLE_TIMEOUT_MINUTES = 10;
+
+    @KubernetesTestServer
+    KubernetesServer server;
+
+    @Inject
+    MockControlPlane mockControlPlane;
+
+    @Inject
+    ManagedKafkaSync managedKafkaSync;
+
+    @Inject
+    ControlPlane controlPlane;
+
+    @Inject
+    KeyedWorkQueue workQueue;
+
+    @Inject
+    ManagedKafkaResourceClient managedKafkaClient;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private final Random random = new Random(0);
+    private final AtomicInteger nextInstance = new AtomicInteger();
+
+    @Test
+    void benchmark() throws Exception {
+        double churn = Double.parseDouble(System.getProperty("sync.benchmark.churn", "0.05"));
+        int rounds = Integer.getInteger("sync.benchmark.rounds", 3);
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (String size : System.getProperty("sync.benchmark.sizes", "100,1000,10000").split(",")) {
+            results.add(run(Integer.parseInt(size.trim()), churn, rounds));
+            cleanup();
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("churn", churn);
+        report.put("rounds", rounds);
+        report.put("latency", System.getProperty("sync.benchmark.latency", "0s"));
+        report.put("results", results);
+
+        Path path = Paths.get(System.getProperty("sync.benchmark.report", "target/sync-benchmark.json"));
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Serialization.jsonMapper().writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+        log.infof("Wrote the sync benchmark report to %s", path.toAbsolutePath());
+    }
+
+    Map<String, Object> run(int instances, double churn, int rounds) throws InterruptedException {
+        log.infof("Running the sync benchmark with %s instances", instances);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("instances", instances);
+
+        for (int i = 0; i < instances; i++) {
+            mockControlPlane.createCluster(ManagedKafka.getDummyInstance(nextInstance.getAndIncrement()));
+        }
+        result.put("initial", measure(managedKafkaSync::syncKafkaClusters));
+
+        int changes = Math.max(1, (int) (instances * churn));
+        List<Map<String, Object>> churnResults = new ArrayList<>();
+        for (int round = 0; round < rounds; round++) {
+            applyChurn(changes, round);
+            churnResults.add(measure(managedKafkaSync::syncKafkaClusters));
+        }
+        result.put("churn", churnResults);
+
+        result.put("resync", measure(controlPlane::sendResync));
+        return result;
+    }
+
+    /**
+     * An even mix of creates, deletes and spec updates
+     */
+    void applyChurn(int changes, int round) {
+        List<ManagedKafka> active = mockControlPlane.kafkas.values()
+                .stream()
+                .filter(mk -> !mk.getSpec().isDeleted())
+                .collect(Collectors.toList());
+        Collections.shuffle(active, random);
+        for (int i = 0; i < changes && i < active.size(); i++) {
+            ManagedKafka mk = active.get(i);
+            switch (i % 3) {
+            case 0:
+                mockControlPlane.createCluster(ManagedKafka.getDummyInstance(nextInstance.getAndIncrement()));
+                break;
+            case 1:
+                mockControlPlane.deleteCluster(mk.getId());
+                break;
+            default:
+                mockControlPlane.createCluster(new ManagedKafkaBuilder(mk)
+                        .editMetadata()
+                        .addToLabels("churn", String.valueOf(round))
+                        .endMetadata()
+                        .build());
+                break;
+            }
+        }
+    }
+
+    /**
+     * Run the action, then wait for all of the work it queued to complete
+     */
+    Map<String, Object> measure(Runnable action) throws InterruptedException {
+        Map<String, Long> requestsBefore = controlPlaneRequests();
+        long kubeRequestsBefore = server.getMockServer().getRequestCount();
+        long tasksBefore = queuedTasks();
+        long allocatedBefore = allocatedBytes();
+        AtomicInteger maxDepth = new AtomicInteger();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> maxDepth.accumulateAndGet(workQueue.getDepth(), Math::max), 0, 10, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        try {
+            action.run();
+            long actionNanos = System.nanoTime() - start;
+            awaitIdle();
+            long totalNanos = System.nanoTime() - start;
+
+            long tasks = queuedTasks() - tasksBefore;
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("durationMillis", TimeUnit.NANOSECONDS.toMillis(actionNanos));
+            result.put("completedMillis", TimeUnit.NANOSECONDS.toMillis(totalNanos));
+            result.put("tasks", tasks);
+            result.put("tasksPerSecond", tasks / Math.max(totalNanos / 1e9, 1e-3));
+            result.put("maxQueueDepth", maxDepth.get());
+            result.put("allocatedBytesPerSecond", (long) ((allocatedBytes() - allocatedBefore) / Math.max(totalNanos / 1e9, 1e-3)));
+            Map<String, Long> requests = controlPlaneRequests();
+            requests.replaceAll((endpoint, count) -> count - requestsBefore.getOrDefault(endpoint, 0L));
+            requests.values().removeIf(count -> count == 0);
+            result.put("controlPlaneRequests", requests);
+            result.put("kubernetesRequests", server.getMockServer().getRequestCount() - kubeRequestsBefore);
+            return result;
+        } finally {
+            sampler.shutdownNow();
+        }
+    }
+
+    void awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(IDLE_TIMEOUT_MINUTES);
+        while (!workQueue.isIdle()) {
+            if (System.nanoTime() > deadline) {
+                fail("The work queue did not become idle");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    void cleanup() throws InterruptedException {
+        mockControlPlane.kafkas.values().forEach(controlPlane::removeDesiredState);
+        mockControlPlane.kafkas.clear();
+        mockControlPlane.kafkaStatus.clear();
+        mockControlPlane.kafkaRevisions.clear();
+        managedKafkaClient.list().forEach(mk -> managedKafkaClient.delete(mk.getMetadata().getNamespace(), mk.getMetadata().getName()));
+        awaitIdle();
+    }
+
+    long queuedTasks() {
+        return meterRegistry.find("sync.queue.wait").timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    static Map<String, Long> controlPlaneRequests() {
+        return Metrics.globalRegistry.find("sync.control-plane.request")
+                .timers()
+                .stream()
+                .collect(Collectors.groupingBy(t -> t.getId().getTag("endpoint"), TreeMap::new, Collectors.summingLong(Timer::count)));
+    }
+
+    static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return LongStream.of(threads.getThreadAllocatedBytes(threads.getAllThreadIds())).filter(bytes -> bytes > 0).sum();
+    }
+
+}
@@ -0,0 +1,120 @@
+package org.bf2.sync.informer;
+
+import io.fabric8.kubernetes.api.model.FieldsV1;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ManagedFieldsEntry;
+import io.fabric8.kubernetes.api.model.ManagedFieldsEntryBuilder;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import io.fabric8.kubernetes.client.informers.cache.BasicItemStore;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.fabric8.kubernetes.client.informers.cache.ItemStore;
+import org.bf2.common.ResourceInformerFactory;
+import org.bf2.common.TransformingItemStore;
+import org.bf2.operator.ManagedKafkaKeys.Annotations;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.bf2.sync.SecretManager;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reports the heap used per cached instance for 10k synthetic resources,
+ * with and without the informer transforms used by the sync.
+ * <br>
+ * As it forces full GCs over large heaps it runs only with -Dsync.benchmark=true
+ */
+@EnabledIfSystemProperty(named = "sync.benchmark", matches = "true")
+public class InformerCacheHeapTest {
+
+    private static final int INSTANCES = 10_000;
+    private static Logger log = Logger.getLogger(InformerCacheHeapTest.class);
+
+    @Test
+    void testManagedKafkaHeap() {
+        long full = heapPerInstance(new BasicItemStore<>(Cache::metaNamespaceKeyFunc), InformerCacheHeapTest::managedKafka);
+        ItemStore<ManagedKafka> transformed = new TransformingItemStore<>(ResourceInformerFactory.withoutManagedFields());
+        long slim = heapPerInstance(transformed, InformerCacheHeapTest::managedKafka);
+        log.infof("ManagedKafka heap per cached instance: %s bytes, transformed: %s bytes", full, slim);
+        assertTrue(slim < full, "the transformed cache should use less heap");
+
+        transformed.values().forEach(mk -> assertNull(mk.getMetadata().getManagedFields()));
+    }
+
+    @Test
+    void testSecretHeap() {
+        long full = heapPerInstance(new BasicItemStore<>(Cache::metaNamespaceKeyFunc), InformerCacheHeapTest::secret);
+        ItemStore<Secret> transformed = new TransformingItemStore<>(SecretManager::removeDigestedData);
+        long slim = heapPerInstance(transformed, InformerCacheHeapTest::secret);
+        log.infof("Secret heap per cached instance: %s bytes, transformed: %s bytes", full, slim);
+        assertTrue(slim < full, "the transformed cache should use less heap");
+
+        transformed.values().forEach(secret -> assertNull(secret.getData()));
+    }
+
+    static <T extends HasMetadata> long heapPerInstance(ItemStore<T> store, IntFunction<T> factory) {
+        long before = usedHeap();
+        for (int i = 0; i < INSTANCES; i++) {
+            T resource = factory.apply(i);
+            store.put(store.getKey(resource), resource);
+        }
+        long after = usedHeap();
+        if (store.size() != INSTANCES) {
+            throw new AssertionError();
+        }
+        return (after - before) / INSTANCES;
+    }
+
+    static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    static ManagedKafka managedKafka(int i) {
+        ManagedKafka managedKafka = ManagedKafka.getDummyInstance(i);
+        managedKafka.getMetadata().setNamespace("ns-" + i);
+        managedKafka.getMetadata().setResourceVersion(String.valueOf(i));
+        managedKafka.getMetadata().setManagedFields(List.of(
+                managedFields("kas-fleetshard-sync", "spec", managedKafka.getSpec()),
+                managedFields("kas-fleetshard-operator", "status", Map.of("conditions", "x".repeat(1024)))));
+        return managedKafka;
+    }
+
+    static Secret secret(int i) {
+        String value = Base64.getEncoder().encodeToString("x".repeat(2048).getBytes());
+        return new SecretBuilder()
+                .withNewMetadata()
+                    .withNamespace("ns-" + i)
+                    .withName("master-secret")
+                    .withResourceVersion(String.valueOf(i))
+                    .addToAnnotations(Annotations.MASTER_SECRET_DIGEST, Integer.toHexString(i))
+                .endMetadata()
+                .withData(Map.of("endpoint.tls.crt", value, "endpoint.tls.key", value))
+                .build();
+    }
+
+    private static ManagedFieldsEntry managedFields(String manager, String field, Object value) {
+        FieldsV1 fields = new FieldsV1();
+        fields.setAdditionalProperty("f:" + field, value);
+        return new ManagedFieldsEntryBuilder()
+                .withManager(manager)
+                .withOperation("Update")
+                .withApiVersion("managedkafka.bf2.org/v1alpha1")
+                .withFieldsV1(fields)
+                .build();
+    }
+
+}
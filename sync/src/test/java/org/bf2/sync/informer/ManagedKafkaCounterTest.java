@@ -0,0 +1,68 @@
+package org.bf2.sync.informer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bf2.common.ConditionUtils;
+import org.bf2.operator.resources.v1alpha1.ManagedKafka;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaCondition.Reason;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaCondition.Status;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaCondition.Type;
+import org.bf2.operator.resources.v1alpha1.ManagedKafkaStatusBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ManagedKafkaCounterTest {
+
+    @Test
+    public void testCounts() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ManagedKafkaCounter counter = new ManagedKafkaCounter(meterRegistry);
+
+        ManagedKafka installing = managedKafka(Status.False, Reason.Installing);
+        ManagedKafka other = managedKafka(Status.False, Reason.Installing);
+        counter.onAdd(installing);
+        counter.onAdd(other);
+        assertEquals(2, counter.getTotal());
+        assertEquals(0, counter.getReady());
+        assertEquals(2, gauge(meterRegistry, "managedkafkas.reason", "reason", "Installing"));
+        assertEquals(2, gauge(meterRegistry, "managedkafkas.profile", "profile", "standard"));
+
+        ManagedKafka ready = managedKafka(Status.True, null);
+        counter.onUpdate(installing, ready);
+        assertEquals(2, counter.getTotal());
+        assertEquals(1, counter.getReady());
+        assertEquals(1, gauge(meterRegistry, "managedkafkas.reason", "reason", "Installing"));
+        assertEquals(1, gauge(meterRegistry, "managedkafkas.reason", "reason", ManagedKafkaCounter.NONE));
+
+        // a resync doesn't change anything
+        counter.onUpdate(ready, ready);
+        assertEquals(1, counter.getReady());
+
+        counter.onDelete(ready, false);
+        counter.onDelete(other, true);
+        assertEquals(0, counter.getTotal());
+        assertEquals(0, counter.getReady());
+        assertEquals(0, gauge(meterRegistry, "managedkafkas", null, null));
+        assertEquals(0, gauge(meterRegistry, "managedkafkas.profile", "profile", "standard"));
+    }
+
+    private static double gauge(MeterRegistry meterRegistry, String name, String tag, String value) {
+        if (tag == null) {
+            return meterRegistry.get(name).gauge().value();
+        }
+        return meterRegistry.get(name).tag(tag, value).gauge().value();
+    }
+
+    private static ManagedKafka managedKafka(Status status, Reason reason) {
+        ManagedKafka managedKafka = ManagedKafka.getDummyInstance(1);
+        managedKafka.getMetadata().setLabels(Map.of(ManagedKafka.PROFILE_TYPE, "standard"));
+        managedKafka.setStatus(new ManagedKafkaStatusBuilder()
+                .withConditions(ConditionUtils.buildCondition(Type.Ready, status).reason(reason))
+                .build());
+        return managedKafka;
+    }
+
+}
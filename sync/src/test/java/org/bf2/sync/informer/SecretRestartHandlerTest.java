@@ -0,0 +1,67 @@
+package org.bf2.sync.informer;
+
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import org.bf2.common.ResourceChangeHandler;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SecretRestartHandlerTest {
+
+    SecretRestartHandler handler;
+    AtomicInteger restarts;
+    ResourceChangeHandler<Secret> watch;
+
+    @BeforeEach
+    void setup() {
+        handler = new SecretRestartHandler();
+        handler.log = Logger.getLogger(SecretRestartHandler.class);
+        handler.secretName = "config";
+        restarts = new AtomicInteger();
+        handler.restart = restarts::incrementAndGet;
+        // what the watch started on startup delivers to
+        watch = new ResourceChangeHandler<>(handler::checkSecret);
+    }
+
+    static Secret secret(String uid, String resourceVersion) {
+        return new SecretBuilder()
+                .withNewMetadata()
+                    .withName("config")
+                    .withUid(uid)
+                    .withResourceVersion(resourceVersion)
+                .endMetadata()
+                .build();
+    }
+
+    @Test
+    void testRestartOnChange() {
+        // the initial add is what was loaded
+        watch.onAdd(secret("a", "1"));
+        assertEquals(0, restarts.get());
+
+        // a relist is not a change
+        watch.onUpdate(secret("a", "1"), secret("a", "1"));
+        assertEquals(0, restarts.get());
+
+        watch.onUpdate(secret("a", "1"), secret("a", "2"));
+        assertEquals(1, restarts.get());
+    }
+
+    @Test
+    void testRestartOnReplace() {
+        watch.onAdd(secret("a", "1"));
+
+        // a delete alone does not restart
+        watch.onDelete(secret("a", "1"), false);
+        assertEquals(0, restarts.get());
+
+        watch.onAdd(secret("b", "1"));
+        assertEquals(1, restarts.get());
+    }
+
+}